@@ -2,25 +2,31 @@ package com.koushik.redditclone.controller;
 
 import com.koushik.redditclone.dto.AuthRequest;
 import com.koushik.redditclone.dto.AuthResponse;
+import com.koushik.redditclone.dto.AvailabilityResponse;
 import com.koushik.redditclone.dto.RegisterRequest;
 import com.koushik.redditclone.dto.UserDTO;
 import com.koushik.redditclone.model.User;
 import com.koushik.redditclone.repository.UserRepository;
 import com.koushik.redditclone.security.JwtUtils;
+import com.koushik.redditclone.security.PasswordHashingExecutor;
+import com.koushik.redditclone.service.AccountNameFilter;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 @RestController
 @RequestMapping("/auth")
 @RequiredArgsConstructor
@@ -31,92 +37,104 @@ public class AuthController {
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
     private final JwtUtils jwtUtils;
+    private final PasswordHashingExecutor passwordHashing;
+    private final AccountNameFilter accountNames;
+
+    // For live signup validation; most available names are answered without a query.
+    // Emails are deliberately not checkable here: that would expose who is registered.
+    @GetMapping("/available")
+    public ResponseEntity<AvailabilityResponse> available(@RequestParam String username) {
+        return ResponseEntity.ok(AvailabilityResponse.builder()
+                .username(!accountNames.isUsernameTaken(username))
+                .build());
+    }
 
     @PostMapping("/register")
-    public ResponseEntity<AuthResponse> register(@ModelAttribute RegisterRequest request) {
+    public CompletableFuture<ResponseEntity<AuthResponse>> register(@ModelAttribute RegisterRequest request) {
         logger.debug("Registration request received for username: {}", request.getUsername());
         
         // Check if username or email already exists
-        if (userRepository.existsByUsername(request.getUsername())) {
+        if (accountNames.isUsernameTaken(request.getUsername())) {
             logger.debug("Username already exists: {}", request.getUsername());
-            return ResponseEntity.badRequest()
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest()
                     .body(AuthResponse.builder()
                             .message("Username is already taken")
-                            .build());
+                            .build()));
         }
 
-        if (userRepository.existsByEmail(request.getEmail())) {
+        if (accountNames.isEmailTaken(request.getEmail())) {
             logger.debug("Email already exists: {}", request.getEmail());
-            return ResponseEntity.badRequest()
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest()
                     .body(AuthResponse.builder()
                             .message("Email is already registered")
-                            .build());
+                            .build()));
         }
 
-        try {
-            // Create new user
-            User user = new User();
-            user.setUsername(request.getUsername());
-            user.setEmail(request.getEmail());
-            user.setPassword(passwordEncoder.encode(request.getPassword()));
-            user.setRoles("ROLE_USER");
-
-            userRepository.save(user);
-            logger.debug("User saved successfully: {}", user.getUsername());
+        // The only hash of this password; the token is issued from the saved user
+        return passwordHashing.submit(() -> passwordEncoder.encode(request.getPassword()))
+                .thenApply(encodedPassword -> {
+                    User user = new User();
+                    user.setUsername(request.getUsername());
+                    user.setEmail(request.getEmail());
+                    user.setPassword(encodedPassword);
+                    user.setRoles("ROLE_USER");
 
-            // Generate token
-            Authentication authentication = authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword())
-            );
+                    accountNames.add(user.getUsername(), user.getEmail());
+                    userRepository.save(user);
+                    logger.debug("User saved successfully: {}", user.getUsername());
 
-            UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-            String token = jwtUtils.generateToken(userDetails);
-            logger.debug("JWT token generated for user: {}", user.getUsername());
+                    String token = jwtUtils.generateToken(user);
+                    logger.debug("JWT token generated for user: {}", user.getUsername());
 
-            return ResponseEntity.ok(AuthResponse.builder()
-                    .token(token)
-                    .user(UserDTO.builder()
-                            .id(user.getId())
-                            .username(user.getUsername())
-                            .build())
-                    .message("User registered successfully")
-                    .build());
-        } catch (Exception e) {
-            logger.error("Error during registration", e);
-            return ResponseEntity.badRequest()
-                    .body(AuthResponse.builder()
-                            .message("Registration failed: " + e.getMessage())
+                    return ResponseEntity.ok(AuthResponse.builder()
+                            .token(token)
+                            .user(UserDTO.builder()
+                                    .id(user.getId())
+                                    .username(user.getUsername())
+                                    .build())
+                            .message("User registered successfully")
                             .build());
-        }
+                })
+                .exceptionally(e -> {
+                    logger.error("Error during registration", e);
+                    return ResponseEntity.badRequest()
+                            .body(AuthResponse.builder()
+                                    .message("Registration failed: " + causeOf(e).getMessage())
+                                    .build());
+                });
     }
 
     @PostMapping("/login")
-    public ResponseEntity<AuthResponse> login(@ModelAttribute AuthRequest request) {
+    public CompletableFuture<ResponseEntity<AuthResponse>> login(@ModelAttribute AuthRequest request) {
         logger.debug("Login request received for username: {}", request.getUsername());
         
-        try {
-            Authentication authentication = authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword())
-            );
-
-            User user = (User) authentication.getPrincipal();
-            String token = jwtUtils.generateToken(user);
-            logger.debug("JWT token generated for user: {}", request.getUsername());
+        // BCrypt verification runs on the hashing pool, not on the request thread
+        return passwordHashing.submit(() -> authenticationManager.authenticate(
+                        new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword())))
+                .thenApply(authentication -> {
+                    User user = (User) authentication.getPrincipal();
+                    String token = jwtUtils.generateToken(user);
+                    logger.debug("JWT token generated for user: {}", request.getUsername());
 
-            return ResponseEntity.ok(AuthResponse.builder()
-                    .token(token)
-                    .user(UserDTO.builder()
-                            .id(user.getId())
-                            .username(user.getUsername())
-                            .build())
-                    .message("Login successful")
-                    .build());
-        } catch (Exception e) {
-            logger.error("Error during login", e);
-            return ResponseEntity.badRequest()
-                    .body(AuthResponse.builder()
-                            .message("Login failed: " + e.getMessage())
+                    return ResponseEntity.ok(AuthResponse.builder()
+                            .token(token)
+                            .user(UserDTO.builder()
+                                    .id(user.getId())
+                                    .username(user.getUsername())
+                                    .build())
+                            .message("Login successful")
                             .build());
-        }
+                })
+                .exceptionally(e -> {
+                    logger.error("Error during login", e);
+                    return ResponseEntity.badRequest()
+                            .body(AuthResponse.builder()
+                                    .message("Login failed: " + causeOf(e).getMessage())
+                                    .build());
+                });
+    }
+
+    private static Throwable causeOf(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
     }
 }
@@ -0,0 +1,31 @@
+package com.koushik.redditclone.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.koushik.redditclone.dto.PageResponse;
+import com.koushik.redditclone.dto.PostResponse;
+import com.koushik.redditclone.model.User;
+import com.koushik.redditclone.service.PostService;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api/feed")
+@RequiredArgsConstructor
+public class FeedController {
+
+    private final PostService postService;
+
+    @GetMapping("/home")
+    public ResponseEntity<PageResponse<PostResponse>> getHomeFeed(
+            @AuthenticationPrincipal User currentUser,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(postService.getHomeFeed(currentUser, cursor, size));
+    }
+}
@@ -1,18 +1,34 @@
 package com.koushik.redditclone.controller;
 
-import java.util.Optional;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
 
-import org.springframework.core.io.Resource;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.server.ResponseStatusException;
 
 import com.koushik.redditclone.model.ImageData;
-import com.koushik.redditclone.service.FileStorageService;
+import com.koushik.redditclone.model.ImageSize;
+import com.koushik.redditclone.service.ImageMetadataCache;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 
 @RestController
@@ -20,22 +36,105 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class ImageController {
 
-    private final FileStorageService fileStorageService;
+    // Tomcat writes the file with sendfile after the handler returns when these are set
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+    // A fallback to the original is replaced once the variant is rendered, so revalidate it
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePublic();
+
+    private final ImageMetadataCache imageMetadataCache;
 
     @GetMapping("/{fileName}")
-    public ResponseEntity<Resource> getImage(@PathVariable String fileName) {
-        Optional<Resource> resourceOptional = fileStorageService.getFile(fileName);
-        if (resourceOptional.isEmpty()) {
-            return ResponseEntity.notFound().build();
+    public void getImage(@PathVariable String fileName, @RequestParam(required = false) String size,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ImageSize imageSize = parseSize(size);
+        ImageData image = imageMetadataCache.get(fileName)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+        Path path = Path.of(image.pathFor(imageSize));
+
+        // Files are written once under unique names, so the served path identifies the bytes
+        String etag = "\"" + path.getFileName() + "\"";
+        response.setHeader(HttpHeaders.CACHE_CONTROL,
+                (image.isFinal(imageSize) ? IMMUTABLE : REVALIDATE).getHeaderValue());
+        if (new ServletWebRequest(request, response).checkNotModified(etag)) {
+            return;
+        }
+
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+        try (channel) {
+            long length = channel.size();
+            long start = 0;
+            long end = length - 1;
+
+            List<HttpRange> ranges = requestedRanges(request, etag);
+            // Several ranges would need a multipart body; answering with the whole image is allowed
+            if (ranges.size() == 1) {
+                HttpRange range = ranges.get(0);
+                start = range.getRangeStart(length);
+                end = range.getRangeEnd(length);
+                if (start >= length) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    response.sendError(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                    return;
+                }
+                response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+
+            long count = end - start + 1;
+            response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+            response.setContentType(image.typeFor(imageSize));
+            response.setContentLengthLong(count);
+            if ("HEAD".equals(request.getMethod()) || count == 0) {
+                return;
+            }
+
+            if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+                request.setAttribute(SENDFILE_FILENAME, path.toAbsolutePath().toString());
+                request.setAttribute(SENDFILE_START, start);
+                request.setAttribute(SENDFILE_END, end + 1);
+                return;
+            }
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position <= end) {
+                position += channel.transferTo(position, end + 1 - position, out);
+            }
         }
+    }
 
-        Optional<ImageData> imageDataOptional = fileStorageService.getImageData(fileName);
-        if (imageDataOptional.isEmpty()) {
-            return ResponseEntity.notFound().build();
+    // An If-Range that no longer matches means the client's partial copy is stale
+    private static List<HttpRange> requestedRanges(HttpServletRequest request, String etag) {
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (range == null || (ifRange != null && !ifRange.equals(etag))) {
+            return List.of();
+        }
+        try {
+            return HttpRange.parseRanges(range);
+        } catch (IllegalArgumentException e) {
+            return List.of();
         }
+    }
 
-        return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(imageDataOptional.get().getType()))
-                .body(resourceOptional.get());
+    // No size means the original upload
+    private static ImageSize parseSize(String size) {
+        if (size == null || size.isBlank()) {
+            return null;
+        }
+        try {
+            return ImageSize.valueOf(size.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "size must be thumb, feed or full");
+        }
     }
 }
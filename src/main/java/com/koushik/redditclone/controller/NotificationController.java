@@ -0,0 +1,55 @@
+package com.koushik.redditclone.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.koushik.redditclone.dto.MarkReadRequest;
+import com.koushik.redditclone.dto.NotificationView;
+import com.koushik.redditclone.dto.PageResponse;
+import com.koushik.redditclone.model.User;
+import com.koushik.redditclone.service.NotificationService;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api/notifications")
+@RequiredArgsConstructor
+public class NotificationController {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final NotificationService notificationService;
+
+    @GetMapping
+    public ResponseEntity<PageResponse<NotificationView>> getNotifications(
+            @AuthenticationPrincipal User currentUser,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        return ResponseEntity.ok(notificationService.getNotifications(currentUser, cursor, pageSize));
+    }
+
+    @GetMapping("/unread-count")
+    public ResponseEntity<Long> getUnreadCount(@AuthenticationPrincipal User currentUser) {
+        return ResponseEntity.ok(notificationService.getUnreadCount(currentUser));
+    }
+
+    // Returns the unread count left after marking
+    @PostMapping("/read")
+    public ResponseEntity<Long> markRead(
+            @AuthenticationPrincipal User currentUser,
+            @RequestBody MarkReadRequest request) {
+        if (request.getUpToId() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "upToId is required");
+        }
+        return ResponseEntity.ok(notificationService.markRead(currentUser, request.getUpToId()));
+    }
+}
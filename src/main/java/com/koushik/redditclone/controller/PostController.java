@@ -1,12 +1,14 @@
 package com.koushik.redditclone.controller;
 
 import java.io.IOException;
+import java.util.List;
 
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import com.koushik.redditclone.dto.CommentRequest;
 import com.koushik.redditclone.dto.CreatePostRequest;
@@ -32,21 +34,55 @@ public class PostController {
         return ResponseEntity.ok(post);
     }
 
+    // Passing cursor (even empty, for the first page) switches to keyset paging
     @GetMapping
     public ResponseEntity<PageResponse<PostResponse>> getAllPosts(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor) {
+        if (cursor != null) {
+            return ResponseEntity.ok(postService.getAllPosts(cursor, size));
+        }
         return ResponseEntity.ok(postService.getAllPosts(page, size));
     }
 
+    @GetMapping("/since")
+    public ResponseEntity<PageResponse<PostResponse>> getPostsSince(
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(postService.getPostsSince(cursor, size));
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamNewPosts(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return postService.streamNewPosts(lastEventId);
+    }
+
     @GetMapping("/user/{username}")
     public ResponseEntity<PageResponse<PostResponse>> getUserPosts(
             @PathVariable String username,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor) {
+        if (cursor != null) {
+            return ResponseEntity.ok(postService.getUserPosts(username, cursor, size));
+        }
         return ResponseEntity.ok(postService.getUserPosts(username, page, size));
     }
 
+    @GetMapping("/hashtag/{tag}")
+    public ResponseEntity<PageResponse<PostResponse>> getHashtagPosts(
+            @PathVariable String tag,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor) {
+        if (cursor != null) {
+            return ResponseEntity.ok(postService.getHashtagPosts(tag, cursor, size));
+        }
+        return ResponseEntity.ok(postService.getHashtagPosts(tag, page, size));
+    }
+
     @PostMapping("/{postId}/comments")
     public ResponseEntity<?> addComment(
             @PathVariable Long postId,
@@ -56,11 +92,24 @@ public class PostController {
         return ResponseEntity.ok().build();
     }
 
+    @PostMapping("/{postId}/comments:batch")
+    public ResponseEntity<?> addComments(
+            @PathVariable Long postId,
+            @RequestBody List<CommentRequest> requests,
+            @AuthenticationPrincipal User currentUser) {
+        postService.addComments(postId, requests, currentUser);
+        return ResponseEntity.ok().build();
+    }
+
     @GetMapping("/{postId}/comments")
     public ResponseEntity<?> getComments(
             @PathVariable Long postId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor) {
+        if (cursor != null) {
+            return ResponseEntity.ok(postService.getComments(postId, cursor, size));
+        }
         return ResponseEntity.ok(postService.getComments(postId, page, size));
     }
 
@@ -0,0 +1,29 @@
+package com.koushik.redditclone.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.koushik.redditclone.dto.PageResponse;
+import com.koushik.redditclone.dto.PostResponse;
+import com.koushik.redditclone.service.PostService;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api/search")
+@RequiredArgsConstructor
+public class SearchController {
+
+    private final PostService postService;
+
+    @GetMapping("/posts")
+    public ResponseEntity<PageResponse<PostResponse>> searchPosts(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(postService.searchPosts(q, page, size));
+    }
+}
@@ -5,8 +5,11 @@ import java.util.List;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.koushik.redditclone.dto.PostResponse;
+import com.koushik.redditclone.service.PostService;
 import com.koushik.redditclone.service.TrendingService;
 
 import lombok.RequiredArgsConstructor;
@@ -17,9 +20,17 @@ import lombok.RequiredArgsConstructor;
 public class TrendingController {
     
     private final TrendingService trendingService;
+    private final PostService postService;
     
     @GetMapping
-    public ResponseEntity<List<String>> getTrendingHashtags() {
-        return ResponseEntity.ok(trendingService.getTrendingHashtags());
+    public ResponseEntity<List<String>> getTrendingHashtags(
+            @RequestParam(required = false) String mode) {
+        return ResponseEntity.ok(trendingService.getTrendingHashtags(mode));
+    }
+
+    @GetMapping("/posts")
+    public ResponseEntity<List<PostResponse>> getHotPosts(
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(postService.getHotPosts(limit));
     }
 }
@@ -7,8 +7,11 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.koushik.redditclone.dto.PageResponse;
+import com.koushik.redditclone.dto.UserDTO;
 import com.koushik.redditclone.dto.UserResponse;
 import com.koushik.redditclone.model.User;
 import com.koushik.redditclone.service.UserService;
@@ -20,6 +23,8 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class UserController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final UserService userService;
 
     @GetMapping("/{username}")
@@ -28,12 +33,28 @@ public class UserController {
         return ResponseEntity.ok(new ApiResponse<>(profile, true, null));
     }
 
+    // Listings are ordered by user id; pass the returned nextCursor to get the next page
+    @GetMapping("/{username}/followers")
+    public ResponseEntity<PageResponse<UserDTO>> getFollowers(
+            @PathVariable String username,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(userService.getFollowers(username, cursor, pageSize(size)));
+    }
+
+    @GetMapping("/{username}/following")
+    public ResponseEntity<PageResponse<UserDTO>> getFollowing(
+            @PathVariable String username,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(userService.getFollowing(username, cursor, pageSize(size)));
+    }
+
     @PostMapping("/{username}/follow")
     public ResponseEntity<ApiResponse<UserResponse>> followUser(
             @AuthenticationPrincipal User currentUser,
             @PathVariable String username) {
-        User userToFollow = userService.getUserByUsername(username);
-        userService.followUser(currentUser, userToFollow.getId());
+        userService.followUser(currentUser, userService.getUserIdByUsername(username));
         UserResponse profile = userService.getUserProfile(username);
         return ResponseEntity.ok(new ApiResponse<>(profile, true, null));
     }
@@ -42,9 +63,12 @@ public class UserController {
     public ResponseEntity<ApiResponse<UserResponse>> unfollowUser(
             @AuthenticationPrincipal User currentUser,
             @PathVariable String username) {
-        User userToUnfollow = userService.getUserByUsername(username);
-        userService.unfollowUser(currentUser, userToUnfollow.getId());
+        userService.unfollowUser(currentUser, userService.getUserIdByUsername(username));
         UserResponse profile = userService.getUserProfile(username);
         return ResponseEntity.ok(new ApiResponse<>(profile, true, null));
     }
+
+    private static int pageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
 }
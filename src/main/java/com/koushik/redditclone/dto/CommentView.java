@@ -0,0 +1,22 @@
+package com.koushik.redditclone.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Comment columns joined to the author's id and username, selected by a JPQL
+ * constructor expression so comment pages never hydrate Comment, Post or User entities.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CommentView {
+    private Long id;
+    private String content;
+    private LocalDateTime timestamp;
+    private Long authorId;
+    private String authorUsername;
+}
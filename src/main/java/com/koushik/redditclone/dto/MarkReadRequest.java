@@ -0,0 +1,13 @@
+package com.koushik.redditclone.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MarkReadRequest {
+    // Highest notification id the client has seen; it and everything older is marked read
+    private Long upToId;
+}
@@ -0,0 +1,15 @@
+package com.koushik.redditclone.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationMessage {
+    private String type;
+    private String content;
+    private Long senderId;
+    private Long postId;
+}
@@ -0,0 +1,25 @@
+package com.koushik.redditclone.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One inbox entry, selected by a JPQL constructor expression so listing notifications
+ * never hydrates Notification, User or Post entities.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationView {
+    private Long id;
+    private String type;
+    private String content;
+    private LocalDateTime timestamp;
+    private boolean read;
+    private Long senderId;
+    private String senderUsername;
+    private Long postId;
+}
@@ -2,6 +2,8 @@ package com.koushik.redditclone.dto;
 
 import java.util.List;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -17,4 +19,8 @@ public class PageResponse<T> {
     private int page;
     private int limit;
     private boolean hasMore;
+
+    // Only set for cursor (keyset) pages; total is not computed in that mode
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
 }
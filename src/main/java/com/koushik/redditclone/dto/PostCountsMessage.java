@@ -0,0 +1,15 @@
+package com.koushik.redditclone.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostCountsMessage {
+    private Long postId;
+    private long likesCount;
+    private int commentsCount;
+    private long shareCount;
+}
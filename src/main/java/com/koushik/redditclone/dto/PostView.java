@@ -0,0 +1,26 @@
+package com.koushik.redditclone.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Viewer-independent columns of a rendered post, selected directly by JPQL
+ * constructor expressions so feed pages never hydrate Post or User entities.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostView {
+    private Long id;
+    private String content;
+    private String imageName;
+    private LocalDateTime timestamp;
+    private Long authorId;
+    private String authorUsername;
+    private int likesCount;
+    private int commentsCount;
+    private int shareCount;
+}
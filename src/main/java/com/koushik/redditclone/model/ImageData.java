@@ -27,4 +27,36 @@ public class ImageData {
 
     @Column(length = 1000)
     private String path;    // File path on disk
+
+    // Resized, metadata-free copies; null until the variant pipeline has rendered them
+    @Column(name = "thumb_path", length = 1000)
+    private String thumbPath;
+
+    @Column(name = "feed_path", length = 1000)
+    private String feedPath;
+
+    @Column(name = "full_path", length = 1000)
+    private String fullPath;
+
+    @Column(name = "variant_type")
+    private String variantType;
+
+    // The original is served until the requested variant exists
+    public String pathFor(ImageSize size) {
+        String variant = size == null ? null : switch (size) {
+            case THUMB -> thumbPath;
+            case FEED -> feedPath;
+            case FULL -> fullPath;
+        };
+        return variant != null ? variant : path;
+    }
+
+    // The original never changes, and neither do variants once recorded; only a fallback does
+    public boolean isFinal(ImageSize size) {
+        return size == null || thumbPath != null;
+    }
+
+    public String typeFor(ImageSize size) {
+        return pathFor(size).equals(path) ? type : variantType;
+    }
 }
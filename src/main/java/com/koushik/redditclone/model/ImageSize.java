@@ -0,0 +1,8 @@
+package com.koushik.redditclone.model;
+
+// Rendered variants of an uploaded image, smallest first
+public enum ImageSize {
+    THUMB,
+    FEED,
+    FULL
+}
@@ -1,27 +1,40 @@
 package com.koushik.redditclone.model;
 
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.CreationTimestamp;
+
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
-import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 
 @Entity
-@Data
+@Getter
+@Setter
+@ToString(exclude = {"recipient", "sender", "post"})
+@EqualsAndHashCode(exclude = {"recipient", "sender", "post"})
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
-@Table(name = "notifications")
+@Table(name = "notifications", indexes = {
+    @Index(name = "idx_notifications_recipient_id", columnList = "recipient_id, id DESC")
+})
 public class Notification {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "recipient_id", nullable = false)
     private User recipient;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "sender_id", nullable = false)
     private User sender;
 
@@ -31,7 +44,17 @@ public class Notification {
     @Column(nullable = false)
     private String type;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "post_id")
     private Post post;
+
+    // Column defaults also cover rows written by NotificationService's JDBC batch
+    @CreationTimestamp
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    private LocalDateTime timestamp;
+
+    @Column(name = "is_read", nullable = false)
+    @ColumnDefault("false")
+    @Builder.Default
+    private boolean read = false;
 }
@@ -6,15 +6,17 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 
+import jakarta.persistence.CollectionTable;
 import jakarta.persistence.Column;
 import jakarta.persistence.ElementCollection;
 import jakarta.persistence.Entity;
-import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
@@ -31,7 +33,10 @@ import lombok.ToString;
 import lombok.EqualsAndHashCode;
 
 @Entity
-@Table(name = "posts")
+@Table(name = "posts", indexes = {
+    @Index(name = "idx_posts_timestamp_id", columnList = "timestamp DESC, id DESC"),
+    @Index(name = "idx_posts_user_timestamp_id", columnList = "user_id, timestamp DESC, id DESC")
+})
 @Getter
 @Setter
 @ToString(exclude = {"user", "likes"})
@@ -55,6 +60,8 @@ public class Post {
     private LocalDateTime timestamp;
 
     @ElementCollection
+    @CollectionTable(name = "post_hashtags", joinColumns = @JoinColumn(name = "post_id"),
+        indexes = @Index(name = "idx_post_hashtags_post_id", columnList = "post_id"))
     @Column(name = "hashtag")
     @Builder.Default
     private List<String> hashtags = new ArrayList<>();
@@ -63,7 +70,8 @@ public class Post {
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
-    @ManyToMany(fetch = FetchType.EAGER)
+    // Never loaded to render a post: use likesCount and PostRepository.findLikedPostIds
+    @ManyToMany
     @JoinTable(
         name = "post_likes",
         joinColumns = @JoinColumn(name = "post_id"),
@@ -72,6 +80,11 @@ public class Post {
     @Builder.Default
     private Set<User> likes = new HashSet<>();
 
+    @Column(name = "likes_count", nullable = false)
+    @ColumnDefault("0")
+    @Builder.Default
+    private int likesCount = 0;
+
     @Column(name = "comments_count")
     @Builder.Default
     private int commentsCount = 0;
@@ -33,8 +33,8 @@ import lombok.EqualsAndHashCode;
 @Table(name = "users")
 @Getter
 @Setter
-@ToString(exclude = {"followers", "following", "posts"})
-@EqualsAndHashCode(exclude = {"followers", "following", "posts"})
+@ToString(exclude = {"followers", "posts"})
+@EqualsAndHashCode(exclude = {"followers", "posts"})
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
@@ -56,8 +56,10 @@ public class User implements UserDetails {
     @Column(name = "roles", nullable = false)
     private String roles;
 
+    // Defines the user_followers table only; never loaded. Use FollowGraph for counts,
+    // membership and listings, and to follow or unfollow.
     @Builder.Default
-    @ManyToMany
+    @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
         name = "user_followers",
         joinColumns = @JoinColumn(name = "user_id"),
@@ -65,10 +67,6 @@ public class User implements UserDetails {
     )
     private Set<User> followers = new HashSet<>();
 
-    @Builder.Default
-    @ManyToMany(mappedBy = "followers", fetch = FetchType.EAGER)
-    private Set<User> following = new HashSet<>();
-
     @Builder.Default
     @OneToMany(mappedBy = "user", fetch = FetchType.LAZY)
     private Set<Post> posts = new HashSet<>();
@@ -1,15 +1,36 @@
 package com.koushik.redditclone.repository;
 
-import org.springframework.data.domain.Page;
+import java.time.LocalDateTime;
+
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import com.koushik.redditclone.dto.CommentView;
 import com.koushik.redditclone.model.Comment;
 
 @Repository
-public interface CommentRepository extends JpaRepository<Comment, Long> {
-    // Find comments with basic loading, JPA will handle relationships
-    Page<Comment> findByPostIdOrderByTimestampDesc(Long postId, Pageable pageable);
+public interface CommentRepository extends JpaRepository<Comment, Long>, CommentRepositoryCustom {
+    String VIEW_SELECT = "SELECT new com.koushik.redditclone.dto.CommentView(c.id, c.content, c.timestamp, "
+            + "u.id, u.username) FROM Comment c JOIN c.user u ";
+
+    // Slices fetch one extra row to compute hasNext instead of running a count query
+    @Query(VIEW_SELECT + "WHERE c.post.id = :postId ORDER BY c.timestamp DESC, c.id DESC")
+    Slice<CommentView> findViewsByPostId(Long postId, Pageable pageable);
+
+    // Row-value cursor, so the (post_id, timestamp, id) index scan starts at the cursor
+    @Query(VIEW_SELECT + "WHERE c.post.id = :postId AND (c.timestamp, c.id) < (:timestamp, :id) "
+            + "ORDER BY c.timestamp DESC, c.id DESC")
+    Slice<CommentView> findViewsByPostIdBefore(Long postId, LocalDateTime timestamp, Long id, Pageable pageable);
+
+    // Insert and counter increment in one statement; a missing post fails the foreign key
+    @Modifying
+    @Query(value = "WITH inserted AS (INSERT INTO comments (content, post_id, user_id, timestamp) "
+            + "VALUES (:content, :postId, :userId, :timestamp) RETURNING post_id) "
+            + "UPDATE posts SET comments_count = comments_count + 1 WHERE id = (SELECT post_id FROM inserted)",
+            nativeQuery = true)
+    int insertAndCount(Long postId, Long userId, String content, LocalDateTime timestamp);
 }
@@ -0,0 +1,11 @@
+package com.koushik.redditclone.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface CommentRepositoryCustom {
+    /**
+     * Inserts the comments with JDBC batching; the post's comments_count is not touched.
+     */
+    void insertBatch(long postId, long userId, List<String> contents, LocalDateTime timestamp);
+}
@@ -0,0 +1,30 @@
+package com.koushik.redditclone.repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+public class CommentRepositoryImpl implements CommentRepositoryCustom {
+
+    private static final int BATCH_SIZE = 100;
+    private static final String INSERT_SQL =
+            "INSERT INTO comments (content, post_id, user_id, timestamp) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertBatch(long postId, long userId, List<String> contents, LocalDateTime timestamp) {
+        Timestamp created = Timestamp.valueOf(timestamp);
+        jdbcTemplate.batchUpdate(INSERT_SQL, contents, BATCH_SIZE, (ps, content) -> {
+            ps.setString(1, content);
+            ps.setLong(2, postId);
+            ps.setLong(3, userId);
+            ps.setTimestamp(4, created);
+        });
+    }
+}
@@ -1,9 +1,23 @@
 package com.koushik.redditclone.repository;
 
+import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 import com.koushik.redditclone.model.ImageData;
 
 public interface ImageRepository extends JpaRepository<ImageData, Long> {
     Optional<ImageData> findByName(String name);
+
+    @Query("SELECT i FROM ImageData i WHERE i.thumbPath IS NULL AND i.id > :afterId ORDER BY i.id")
+    List<ImageData> findWithoutVariants(Long afterId, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE ImageData i SET i.thumbPath = :thumbPath, i.feedPath = :feedPath, i.fullPath = :fullPath, "
+            + "i.variantType = :variantType WHERE i.id = :id")
+    int updateVariants(Long id, String thumbPath, String feedPath, String fullPath, String variantType);
 }
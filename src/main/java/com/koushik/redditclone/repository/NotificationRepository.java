@@ -1,10 +1,37 @@
 package com.koushik.redditclone.repository;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.koushik.redditclone.dto.NotificationView;
 import com.koushik.redditclone.model.Notification;
 
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
+    String VIEW_SELECT = "SELECT new com.koushik.redditclone.dto.NotificationView(n.id, n.type, n.content, "
+            + "n.timestamp, n.read, s.id, s.username, p.id) "
+            + "FROM Notification n JOIN n.sender s LEFT JOIN n.post p ";
+
+    // Walks idx_notifications_recipient_id (recipient_id, id DESC) from the cursor
+    @Query(VIEW_SELECT + "WHERE n.recipient.id = :recipientId AND n.id < :beforeId ORDER BY n.id DESC")
+    Slice<NotificationView> findViewsByRecipientIdBefore(Long recipientId, Long beforeId, Pageable pageable);
+
+    @Query(value = "SELECT count(*) FROM notifications WHERE recipient_id = :recipientId AND NOT is_read",
+            nativeQuery = true)
+    long countUnread(Long recipientId);
+
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE notifications SET is_read = true "
+            + "WHERE recipient_id = :recipientId AND id <= :upToId AND NOT is_read", nativeQuery = true)
+    int markReadUpTo(Long recipientId, Long upToId);
+
+    @Modifying
+    @Query(value = "DELETE FROM notifications WHERE post_id = :postId", nativeQuery = true)
+    int deleteByPostId(Long postId);
 }
@@ -3,17 +3,82 @@ package com.koushik.redditclone.repository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import com.koushik.redditclone.dto.PostView;
 import com.koushik.redditclone.model.Post;
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 
 public interface PostRepository extends JpaRepository<Post, Long> {
-    @Query(value = "SELECT DISTINCT p FROM Post p LEFT JOIN FETCH p.user WHERE p.user.id = :userId ORDER BY p.timestamp DESC")
-    Page<Post> findByUserId(Long userId, Pageable pageable);
+    // (timestamp, author id, hashtag) of recent posts, one row per tag
+    @Query("SELECT p.timestamp, p.user.id, h FROM Post p JOIN p.hashtags h WHERE p.timestamp > :since")
+    List<Object[]> findHashtagsSince(LocalDateTime since);
 
-    @Query(value = "SELECT DISTINCT p FROM Post p LEFT JOIN FETCH p.user ORDER BY p.timestamp DESC")
-    Page<Post> findAllWithUser(Pageable pageable);
+    String VIEW_SELECT = "SELECT new com.koushik.redditclone.dto.PostView(p.id, p.content, i.name, p.timestamp, "
+            + "u.id, u.username, p.likesCount, p.commentsCount, p.shareCount) FROM Post p JOIN p.user u LEFT JOIN p.image i ";
 
-    @Query(value = "SELECT DISTINCT p FROM Post p LEFT JOIN FETCH p.user WHERE p.timestamp > :timestamp ORDER BY p.timestamp DESC")
-    Page<Post> findByTimestampAfter(LocalDateTime timestamp, Pageable pageable);
+    @Query(value = VIEW_SELECT + "ORDER BY p.timestamp DESC, p.id DESC",
+            countQuery = "SELECT count(p) FROM Post p")
+    Page<PostView> findAllViews(Pageable pageable);
+
+    @Query(value = VIEW_SELECT + "WHERE u.id = :userId ORDER BY p.timestamp DESC, p.id DESC",
+            countQuery = "SELECT count(p) FROM Post p WHERE p.user.id = :userId")
+    Page<PostView> findViewsByUserId(Long userId, Pageable pageable);
+
+    // Keyset (seek) queries: no OFFSET and no count(*), so every page costs the same.
+    // They return ids only; views are served from PostViewCache and loaded on a miss.
+    // The cursor is a row-value comparison so Postgres starts the index scan at it;
+    // the equivalent OR of two predicates is not usable as an index condition.
+    @Query(value = "SELECT p.id FROM Post p ORDER BY p.timestamp DESC, p.id DESC")
+    List<Long> findLatestIds(Pageable pageable);
+
+    @Query(value = "SELECT p.id FROM Post p WHERE (p.timestamp, p.id) < (:timestamp, :id) "
+            + "ORDER BY p.timestamp DESC, p.id DESC")
+    List<Long> findIdsBefore(LocalDateTime timestamp, Long id, Pageable pageable);
+
+    // Ascending: the posts created after the cursor, oldest first. Keyed on the creation
+    // timestamp, so a post committed after a newer-stamped one can fall behind a cursor
+    @Query(value = "SELECT p.id FROM Post p WHERE (p.timestamp, p.id) > (:timestamp, :id) "
+            + "ORDER BY p.timestamp ASC, p.id ASC")
+    List<Long> findIdsAfter(LocalDateTime timestamp, Long id, Pageable pageable);
+
+    @Query(value = "SELECT p.id FROM Post p WHERE p.user.id = :userId ORDER BY p.timestamp DESC, p.id DESC")
+    List<Long> findLatestIdsByUserId(Long userId, Pageable pageable);
+
+    @Query(value = "SELECT p.id FROM Post p WHERE p.user.id = :userId AND (p.timestamp, p.id) < (:timestamp, :id) "
+            + "ORDER BY p.timestamp DESC, p.id DESC")
+    List<Long> findIdsBeforeByUserId(Long userId, LocalDateTime timestamp, Long id, Pageable pageable);
+
+    @Query(value = VIEW_SELECT + "WHERE p.id IN :ids")
+    List<PostView> findViewsByIdIn(Collection<Long> ids);
+
+    @Query(value = "SELECT p.id, p.user.id FROM Post p WHERE p.user.id IN :authorIds ORDER BY p.id DESC")
+    List<Object[]> findIdsAndAuthorsByAuthors(List<Long> authorIds, Pageable pageable);
+
+    @Query(value = "SELECT p.id FROM Post p WHERE p.user.id IN :authorIds AND p.id < :beforeId ORDER BY p.id DESC")
+    List<Long> findIdsByAuthorsBefore(List<Long> authorIds, long beforeId, Pageable pageable);
+
+    // One membership probe per page instead of loading every liker of every post
+    @Query(value = "SELECT post_id FROM post_likes WHERE user_id = :userId AND post_id IN :postIds", nativeQuery = true)
+    List<Long> findLikedPostIds(Long userId, Collection<Long> postIds);
+
+    @Modifying
+    @Query(value = "INSERT INTO post_likes (post_id, user_id) VALUES (:postId, :userId) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertLike(Long postId, Long userId);
+
+    @Modifying
+    @Query(value = "UPDATE posts SET comments_count = comments_count + :delta WHERE id = :postId", nativeQuery = true)
+    int addCommentsCount(Long postId, int delta);
+
+    @Modifying
+    @Query(value = "DELETE FROM post_likes WHERE post_id = :postId AND user_id = :userId", nativeQuery = true)
+    int deleteLike(Long postId, Long userId);
+
+    // Fills likes_count for rows that predate the column
+    @Modifying
+    @Query(value = "UPDATE posts p SET likes_count = (SELECT count(*) FROM post_likes l WHERE l.post_id = p.id) "
+            + "WHERE p.likes_count = 0 AND EXISTS (SELECT 1 FROM post_likes l WHERE l.post_id = p.id)", nativeQuery = true)
+    int backfillLikesCount();
 }
@@ -1,10 +1,15 @@
 package com.koushik.redditclone.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import com.koushik.redditclone.dto.UserDTO;
 import com.koushik.redditclone.model.User;
 
 @Repository
@@ -13,4 +18,38 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
+
+    @Query(value = "SELECT u.id FROM User u WHERE u.username = :username")
+    Optional<Long> findIdByUsername(String username);
+
+    // user_followers(user_id, follower_id): follower_id follows user_id
+    @Query(value = "SELECT follower_id FROM user_followers WHERE user_id = :userId", nativeQuery = true)
+    List<Long> findFollowerIds(Long userId);
+
+    @Query(value = "SELECT user_id FROM user_followers WHERE follower_id = :userId", nativeQuery = true)
+    List<Long> findFollowingIds(Long userId);
+
+    @Query(value = "SELECT count(*) FROM user_followers WHERE user_id = :userId", nativeQuery = true)
+    long countFollowers(Long userId);
+
+    @Query(value = "SELECT count(*) FROM user_followers WHERE follower_id = :userId", nativeQuery = true)
+    long countFollowing(Long userId);
+
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM user_followers WHERE user_id = :userId AND follower_id = :followerId)",
+            nativeQuery = true)
+    boolean isFollowing(Long userId, Long followerId);
+
+    // Edges are written directly; FollowGraph serves reads, and User has no collection to keep in sync
+    @Modifying
+    @Query(value = "INSERT INTO user_followers (user_id, follower_id) VALUES (:userId, :followerId) "
+            + "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertFollower(Long userId, Long followerId);
+
+    @Modifying
+    @Query(value = "DELETE FROM user_followers WHERE user_id = :userId AND follower_id = :followerId",
+            nativeQuery = true)
+    int deleteFollower(Long userId, Long followerId);
+
+    @Query(value = "SELECT new com.koushik.redditclone.dto.UserDTO(u.id, u.username) FROM User u WHERE u.id IN :ids")
+    List<UserDTO> findSummariesByIdIn(Collection<Long> ids);
 }
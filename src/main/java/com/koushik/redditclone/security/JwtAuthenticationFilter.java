@@ -1,5 +1,6 @@
 package com.koushik.redditclone.security;
 
+import com.koushik.redditclone.model.User;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -33,16 +34,20 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         final String jwt = authHeader.substring(7);
-        final String username = jwtUtils.extractUsername(jwt);
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-            
-            if (jwtUtils.validateToken(jwt)) {
+        if (SecurityContextHolder.getContext().getAuthentication() == null) {
+            // One signature check (or a cache hit); the principal comes from the claims
+            UserDetails principal = jwtUtils.authenticate(jwt);
+            if (principal instanceof User user && user.getId() == null) {
+                // Token issued before ids were embedded: look the user up as before
+                principal = userDetailsService.loadUserByUsername(user.getUsername());
+            }
+
+            if (principal != null) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                    userDetails,
+                    principal,
                     null,
-                    userDetails.getAuthorities()
+                    principal.getAuthorities()
                 );
                 
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
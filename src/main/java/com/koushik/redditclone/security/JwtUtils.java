@@ -1,5 +1,6 @@
 package com.koushik.redditclone.security;
 
+import com.koushik.redditclone.model.User;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import jakarta.annotation.PostConstruct;
@@ -8,28 +9,52 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 @Component
 public class JwtUtils {
 
+    static final String USER_ID_CLAIM = "uid";
+    static final String ROLES_CLAIM = "roles";
+
     @Value("${jwt.secret:defaultSecretKey12345678901234567890}")
     private String secret;
 
     @Value("${jwt.expiration:86400000}") // 24 hours in milliseconds
     private long expiration;
 
+    @Value("${jwt.verified-cache-size:10000}")
+    private int verifiedCacheSize;
+
     private SecretKey key;
+    private JwtParser parser;
+
+    // Tokens whose signature was already checked, until they expire
+    private Map<String, VerifiedToken> verified;
 
     @PostConstruct
     public void init() {
         this.key = Keys.hmacShaKeyFor(secret.getBytes());
+        this.parser = Jwts.parserBuilder().setSigningKey(key).build();
+        this.verified = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, VerifiedToken> eldest) {
+                return size() > verifiedCacheSize;
+            }
+        });
     }
 
+    // Carries the user id and roles so requests can be authenticated without a user lookup
     public String generateToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
+        if (userDetails instanceof User user) {
+            claims.put(USER_ID_CLAIM, user.getId());
+            claims.put(ROLES_CLAIM, user.getRoles());
+        }
         return createToken(claims, userDetails.getUsername());
     }
 
@@ -43,42 +68,60 @@ public class JwtUtils {
                 .compact();
     }
 
-    public boolean validateToken(String token) {
-        try {
-            Jwts.parserBuilder()
-                    .setSigningKey(key)
-                    .build()
-                    .parseClaimsJws(token);
-            return true;
-        } catch (JwtException | IllegalArgumentException e) {
-            return false;
+    /**
+     * Verifies the token once and returns the principal built from its claims, or null
+     * if the token is invalid or expired. Tokens issued before the uid claim existed
+     * come back as a principal with only a username; callers load those users.
+     */
+    public User authenticate(String token) {
+        VerifiedToken cached = verified.get(token);
+        if (cached != null) {
+            if (cached.expiresAt > System.currentTimeMillis()) {
+                return cached.principal;
+            }
+            verified.remove(token);
+            return null;
+        }
+
+        Claims claims = parse(token);
+        if (claims == null) {
+            return null;
+        }
+        User principal = principalOf(claims);
+        if (principal.getId() != null) {
+            verified.put(token, new VerifiedToken(principal, claims.getExpiration().getTime()));
         }
+        return principal;
+    }
+
+    public boolean validateToken(String token) {
+        return parse(token) != null;
     }
 
     public String extractUsername(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+        Claims claims = parse(token);
+        return claims != null ? claims.getSubject() : null;
     }
 
-    public boolean isTokenExpired(String token) {
+    private Claims parse(String token) {
         try {
-            final Date expiration = extractExpiration(token);
-            return expiration.before(new Date());
-        } catch (Exception e) {
-            return true;
+            return parser.parseClaimsJws(token).getBody();
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
         }
     }
 
-    private Date extractExpiration(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getExpiration();
+    // A detached User holding only what the token says; it is never saved
+    private static User principalOf(Claims claims) {
+        Object userId = claims.get(USER_ID_CLAIM);
+        Object roles = claims.get(ROLES_CLAIM);
+        return User.builder()
+                .id(userId instanceof Number number ? number.longValue() : null)
+                .username(claims.getSubject())
+                .roles(roles != null ? roles.toString() : "USER")
+                .build();
+    }
+
+    private record VerifiedToken(User principal, long expiresAt) {
     }
 }
@@ -0,0 +1,81 @@
+package com.koushik.redditclone.security;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Runs BCrypt hashing and verification on a small dedicated pool so a burst of logins
+ * cannot take every request thread. The pool's queue is bounded; once it is full new
+ * work is refused with 429 instead of piling up behind the hashes already waiting.
+ * Stages chained on a returned future (saving the user, signing the token) run on
+ * virtual threads, so a database round trip never holds one of the hashing threads.
+ */
+@Component
+@RequiredArgsConstructor
+public class PasswordHashingExecutor {
+
+    private final MeterRegistry meterRegistry;
+
+    // 0 means half the available processors
+    @Value("${app.auth.hashing.threads:0}")
+    private int threads;
+
+    // 0 means 20 per hashing thread: at BCrypt's default cost a thread verifies about
+    // ten passwords a second, so the last queued sign-in waits roughly two seconds
+    @Value("${app.auth.hashing.queue-capacity:0}")
+    private int queueCapacity;
+
+    private ThreadPoolExecutor executor;
+    private ExecutorService continuations;
+    private final LongAdder rejected = new LongAdder();
+
+    @PostConstruct
+    public void start() {
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity > 0 ? queueCapacity : poolSize * 20),
+                Thread.ofPlatform().name("password-hashing-", 0).daemon().factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        continuations = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("auth-continuation-", 0).factory());
+
+        FunctionCounter.builder("auth.hashing.rejected", rejected, LongAdder::sum).register(meterRegistry);
+        Gauge.builder("auth.hashing.queue.size", executor, e -> e.getQueue().size()).register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+        continuations.shutdown();
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        CompletableFuture<T> hashed;
+        try {
+            hashed = CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many sign-in attempts, please retry shortly");
+        }
+        return hashed.thenApplyAsync(Function.identity(), continuations);
+    }
+}
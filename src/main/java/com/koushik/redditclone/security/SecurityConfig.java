@@ -57,10 +57,13 @@ public class SecurityConfig {
             .authorizeHttpRequests(auth -> auth
                 .requestMatchers("/auth/**", "/h2-console/**", "/actuator/**").permitAll()
                 .requestMatchers("/uploads/**", "/api/images/**").permitAll()
+                // STOMP sessions authenticate with the token in the CONNECT frame
+                .requestMatchers("/ws/**").permitAll()
                 .requestMatchers(HttpMethod.GET, "/api/users/**").permitAll()
                 .requestMatchers(HttpMethod.POST, "/api/users/*/follow", "/api/users/*/unfollow").authenticated()
                 // Public endpoints for reading posts
                 .requestMatchers(HttpMethod.GET, "/api/posts/**").permitAll()
+                .requestMatchers(HttpMethod.GET, "/api/search/**").permitAll()
                 // Secured endpoints for post actions
                 .requestMatchers(HttpMethod.POST, "/api/posts/**").authenticated()
                 .requestMatchers(HttpMethod.PUT, "/api/posts/**").authenticated()
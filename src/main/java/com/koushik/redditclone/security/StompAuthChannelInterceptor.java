@@ -0,0 +1,64 @@
+package com.koushik.redditclone.security;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+
+import com.koushik.redditclone.model.User;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Authenticates STOMP sessions from the JWT in the CONNECT frame's Authorization
+ * header, the same way {@link JwtAuthenticationFilter} does for HTTP. Sessions without
+ * a token stay anonymous and can only use public topics; private messages go to
+ * /user/queue/... and the raw /queue destinations cannot be subscribed to directly.
+ */
+@Component
+@RequiredArgsConstructor
+public class StompAuthChannelInterceptor implements ChannelInterceptor {
+
+    private final JwtUtils jwtUtils;
+    private final CustomUserDetailsService userDetailsService;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null) {
+            return message;
+        }
+
+        if (StompCommand.CONNECT.equals(accessor.getCommand())) {
+            String authHeader = accessor.getFirstNativeHeader("Authorization");
+            if (authHeader != null && authHeader.startsWith("Bearer ")) {
+                accessor.setUser(new StompPrincipal(authenticate(authHeader.substring(7))));
+            }
+        } else if (StompCommand.SUBSCRIBE.equals(accessor.getCommand())) {
+            String destination = accessor.getDestination();
+            if (destination == null || destination.startsWith("/queue/")) {
+                throw new MessageDeliveryException("Subscribe to /user/queue/... instead");
+            }
+            if (destination.startsWith("/user/") && !(accessor.getUser() instanceof StompPrincipal)) {
+                throw new MessageDeliveryException("Authentication required for " + destination);
+            }
+        }
+        return message;
+    }
+
+    private long authenticate(String token) {
+        User user = jwtUtils.authenticate(token);
+        if (user == null) {
+            throw new MessageDeliveryException("Invalid or expired token");
+        }
+        if (user.getId() == null) {
+            // Token issued before ids were embedded
+            user = (User) userDetailsService.loadUserByUsername(user.getUsername());
+        }
+        return user.getId();
+    }
+}
@@ -0,0 +1,12 @@
+package com.koushik.redditclone.security;
+
+import java.security.Principal;
+
+// Named by user id, so user destinations can be addressed with just a recipient id
+public record StompPrincipal(long userId) implements Principal {
+
+    @Override
+    public String getName() {
+        return Long.toString(userId);
+    }
+}
@@ -0,0 +1,137 @@
+package com.koushik.redditclone.service;
+
+import java.sql.PreparedStatement;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.koushik.redditclone.repository.UserRepository;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Answers "is this username / email taken?" with Bloom filters of every registered
+ * name in front of the database. A miss is definitive and needs no query; only
+ * possible hits are confirmed with an exists query. Keys are lower-cased, which only
+ * adds false positives, never false negatives, for the exact-match SQL check.
+ *
+ * <p>The filters are filled at startup by streaming the users table; until that
+ * finishes every check goes to the database.
+ */
+@Service
+@RequiredArgsConstructor
+public class AccountNameFilter {
+    private static final Logger logger = LoggerFactory.getLogger(AccountNameFilter.class);
+
+    private static final int LOAD_FETCH_SIZE = 10000;
+
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.auth.names-filter.expected-users:1000000}")
+    private long expectedUsers;
+
+    @Value("${app.auth.names-filter.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    private BloomFilter usernames;
+    private BloomFilter emails;
+    private volatile boolean ready;
+
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder confirmed = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        usernames = new BloomFilter(expectedUsers, falsePositiveRate);
+        emails = new BloomFilter(expectedUsers, falsePositiveRate);
+
+        FunctionCounter.builder("auth.names-filter.checks", skipped, LongAdder::sum)
+                .tag("result", "filtered").register(meterRegistry);
+        FunctionCounter.builder("auth.names-filter.checks", confirmed, LongAdder::sum)
+                .tag("result", "queried").register(meterRegistry);
+    }
+
+    public boolean isUsernameTaken(String username) {
+        if (username == null) {
+            return false;
+        }
+        if (ready && !usernames.mightContain(key(username))) {
+            skipped.increment();
+            return false;
+        }
+        confirmed.increment();
+        return userRepository.existsByUsername(username);
+    }
+
+    public boolean isEmailTaken(String email) {
+        if (email == null) {
+            return false;
+        }
+        if (ready && !emails.mightContain(key(email))) {
+            skipped.increment();
+            return false;
+        }
+        confirmed.increment();
+        return userRepository.existsByEmail(email);
+    }
+
+    // Call before the user row can commit; an entry for a failed insert is just a false positive
+    public void add(String username, String email) {
+        usernames.add(key(username));
+        emails.add(key(email));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        Thread.ofPlatform().name("account-names-load").daemon().start(this::loadAll);
+    }
+
+    private void loadAll() {
+        long started = System.currentTimeMillis();
+        long[] users = new long[1];
+        try {
+            // Inside a transaction the fetch size makes the driver use a cursor instead of
+            // buffering the whole users table
+            TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+            readOnly.setReadOnly(true);
+            readOnly.executeWithoutResult(status -> jdbcTemplate.query(con -> {
+                PreparedStatement statement = con.prepareStatement("SELECT username, email FROM users");
+                statement.setFetchSize(LOAD_FETCH_SIZE);
+                return statement;
+            }, rs -> {
+                usernames.add(key(rs.getString(1)));
+                emails.add(key(rs.getString(2)));
+                users[0]++;
+            }));
+        } catch (RuntimeException e) {
+            logger.error("Failed to load account names; availability checks stay on the database", e);
+            return;
+        }
+        ready = true;
+        if (users[0] > expectedUsers) {
+            logger.warn("{} users exceed app.auth.names-filter.expected-users={}; the filter's false positive rate "
+                    + "is above target", users[0], expectedUsers);
+        }
+        logger.info("Account name filters loaded with {} users ({} bytes) in {} ms",
+                users[0], usernames.memoryBytes() + emails.memoryBytes(), System.currentTimeMillis() - started);
+    }
+
+    private static String key(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,73 @@
+package com.koushik.redditclone.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter over strings sized for {@code expectedInsertions} at a target false
+ * positive rate: m = -n ln p / (ln 2)^2 bits and k = (m / n) ln 2 probes. Never
+ * answers "absent" for a string that was added. Adds and lookups are lock-free.
+ */
+class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bits;
+    private final int probes;
+
+    BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        long n = Math.max(expectedInsertions, 1);
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.words = new AtomicLongArray((int) Math.max((m + 63) / 64, 1));
+        this.bits = 64L * words.length();
+        this.probes = Math.max(1, (int) Math.round((double) bits / n * Math.log(2)));
+    }
+
+    void add(String value) {
+        long hash = hash(value);
+        for (int i = 0; i < probes; i++) {
+            long bit = index(hash, i);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            while (((current = words.get(word)) & mask) == 0 && !words.compareAndSet(word, current, current | mask)) {
+                // retry
+            }
+        }
+    }
+
+    boolean mightContain(String value) {
+        long hash = hash(value);
+        for (int i = 0; i < probes; i++) {
+            long bit = index(hash, i);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    long memoryBytes() {
+        return 8L * words.length();
+    }
+
+    // Kirsch-Mitzenmacher: probe i at h1 + i * h2
+    private long index(long hash, int probe) {
+        long h1 = hash >>> 32;
+        long h2 = hash & 0xffffffffL;
+        return Math.floorMod(h1 + probe * h2, bits);
+    }
+
+    // 64-bit FNV-1a over the UTF-16 chars, finished with the splitmix64 mixer
+    private static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h *= 0x9e3779b97f4a7c15L;
+        h ^= h >>> 30;
+        h *= 0xbf58476d1ce4e5b9L;
+        h ^= h >>> 27;
+        h *= 0x94d049bb133111ebL;
+        return h ^ (h >>> 31);
+    }
+}
@@ -0,0 +1,53 @@
+package com.koushik.redditclone.service;
+
+/**
+ * Count-Min sketch over 64-bit key hashes. With width ceil(e / epsilon) and depth
+ * ceil(ln(1 / (1 - confidence))), an estimate never undercounts and exceeds the true
+ * count by more than epsilon * N (N = total weight added) with probability at most
+ * 1 - confidence. Negative updates are allowed as long as no key's true count goes
+ * below zero.
+ */
+class CountMinSketch {
+
+    private final int[][] table;
+    private final int width;
+
+    CountMinSketch(double epsilon, double confidence) {
+        this.width = (int) Math.ceil(Math.E / epsilon);
+        int depth = (int) Math.ceil(Math.log(1 / (1 - confidence)));
+        this.table = new int[Math.max(depth, 1)][width];
+    }
+
+    void add(long hash, int delta) {
+        for (int row = 0; row < table.length; row++) {
+            table[row][index(hash, row)] += delta;
+        }
+    }
+
+    int estimate(long hash) {
+        int min = Integer.MAX_VALUE;
+        for (int row = 0; row < table.length; row++) {
+            min = Math.min(min, table[row][index(hash, row)]);
+        }
+        return Math.max(min, 0);
+    }
+
+    void halve() {
+        for (int[] row : table) {
+            for (int i = 0; i < row.length; i++) {
+                row[i] >>= 1;
+            }
+        }
+    }
+
+    long memoryBytes() {
+        return 4L * width * table.length;
+    }
+
+    // Kirsch-Mitzenmacher: row hashes derived from the two halves of one 64-bit hash
+    private int index(long hash, int row) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        return Math.floorMod(h1 + row * h2, width);
+    }
+}
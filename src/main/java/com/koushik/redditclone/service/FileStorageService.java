@@ -2,7 +2,6 @@ package com.koushik.redditclone.service;
 
 import java.io.File;
 import java.io.IOException;
-import java.net.MalformedURLException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
@@ -10,8 +9,6 @@ import java.util.Optional;
 import java.util.UUID;
 
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
@@ -27,6 +24,7 @@ import lombok.RequiredArgsConstructor;
 public class FileStorageService {
     
     private final ImageRepository imageRepository;
+    private final ImageVariantService imageVariantService;
 
     @Value("${app.upload.directory}")
     private String uploadDirectory;
@@ -53,29 +51,11 @@ public class FileStorageService {
 
         Files.copy(file.getInputStream(), Path.of(filePath), StandardCopyOption.REPLACE_EXISTING);
         imageRepository.save(imageData);
+        imageVariantService.schedule(imageData);
         return fileName;
     }
 
     public Optional<ImageData> getImageData(String fileName) {
         return imageRepository.findByName(fileName);
     }
-
-    public Optional<Resource> getFile(String fileName) {
-        try {
-            Optional<ImageData> imageData = getImageData(fileName);
-            if (imageData.isEmpty()) {
-                return Optional.empty();
-            }
-            
-            Path filePath = Path.of(imageData.get().getPath());
-            Resource resource = new UrlResource(filePath.toUri());
-            
-            if (resource.exists()) {
-                return Optional.of(resource);
-            }
-            return Optional.empty();
-        } catch (MalformedURLException e) {
-            throw new RuntimeException("Error loading file", e);
-        }
-    }
 }
@@ -0,0 +1,259 @@
+package com.koushik.redditclone.service;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.koushik.redditclone.repository.UserRepository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * In-memory follow graph: for every user, the ids of their followers and of the users
+ * they follow, each a sorted {@code long[]}. Counts are array lengths, membership is a
+ * binary search, and pages are slices after an id. Arrays are copied on write, so
+ * readers never lock.
+ *
+ * <p>The graph is loaded in the background at startup; until then every call falls back
+ * to the database. Edges are written to user_followers by {@link #follow} and
+ * {@link #unfollow} and applied here once the transaction commits.
+ */
+@Service
+@RequiredArgsConstructor
+public class FollowGraph {
+    private static final Logger logger = LoggerFactory.getLogger(FollowGraph.class);
+
+    private static final long[] EMPTY = new long[0];
+    private static final int LOAD_FETCH_SIZE = 10000;
+
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+
+    private final Map<Long, long[]> followers = new ConcurrentHashMap<>();
+    private final Map<Long, long[]> following = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+
+    // Non-null while loading; each entry is {followerId, followeeId, 1 for follow or 0 for unfollow}
+    private List<long[]> pendingChanges;
+
+    /**
+     * Adds the edge; returns false if the follower already followed the user.
+     */
+    public boolean follow(long followerId, long userId) {
+        if (userRepository.insertFollower(userId, followerId) == 0) {
+            return false;
+        }
+        afterCommit(() -> apply(followerId, userId, true));
+        return true;
+    }
+
+    /**
+     * Removes the edge; returns false if there was none.
+     */
+    public boolean unfollow(long followerId, long userId) {
+        if (userRepository.deleteFollower(userId, followerId) == 0) {
+            return false;
+        }
+        afterCommit(() -> apply(followerId, userId, false));
+        return true;
+    }
+
+    public int followerCount(long userId) {
+        if (!ready) {
+            return (int) userRepository.countFollowers(userId);
+        }
+        return followers.getOrDefault(userId, EMPTY).length;
+    }
+
+    public int followingCount(long userId) {
+        if (!ready) {
+            return (int) userRepository.countFollowing(userId);
+        }
+        return following.getOrDefault(userId, EMPTY).length;
+    }
+
+    public boolean isFollowing(long followerId, long userId) {
+        if (!ready) {
+            return userRepository.isFollowing(userId, followerId);
+        }
+        return Arrays.binarySearch(following.getOrDefault(followerId, EMPTY), userId) >= 0;
+    }
+
+    public long[] followerIds(long userId) {
+        if (!ready) {
+            return sorted(userRepository.findFollowerIds(userId));
+        }
+        return followers.getOrDefault(userId, EMPTY);
+    }
+
+    public long[] followingIds(long userId) {
+        if (!ready) {
+            return sorted(userRepository.findFollowingIds(userId));
+        }
+        return following.getOrDefault(userId, EMPTY);
+    }
+
+    /**
+     * Up to {@code limit} follower ids greater than {@code afterId}, ascending.
+     */
+    public long[] followersAfter(long userId, long afterId, int limit) {
+        return slice(followerIds(userId), afterId, limit);
+    }
+
+    public long[] followingAfter(long userId, long afterId, int limit) {
+        return slice(followingIds(userId), afterId, limit);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        Thread.ofPlatform().name("follow-graph-load").daemon().start(this::loadAll);
+    }
+
+    private void loadAll() {
+        long started = System.currentTimeMillis();
+        synchronized (this) {
+            pendingChanges = new ArrayList<>();
+        }
+
+        Map<Long, LongList> loadedFollowers = new HashMap<>();
+        Map<Long, LongList> loadedFollowing = new HashMap<>();
+        long[] edges = new long[1];
+        try {
+            // The driver only streams with a fetch size inside a transaction; otherwise
+            // it buffers every edge before the first row is handed over
+            TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+            readOnly.setReadOnly(true);
+            readOnly.executeWithoutResult(status -> jdbcTemplate.query(con -> {
+                PreparedStatement statement = con.prepareStatement("SELECT follower_id, user_id FROM user_followers");
+                statement.setFetchSize(LOAD_FETCH_SIZE);
+                return statement;
+            }, rs -> {
+                long followerId = rs.getLong(1);
+                long userId = rs.getLong(2);
+                loadedFollowers.computeIfAbsent(userId, id -> new LongList()).add(followerId);
+                loadedFollowing.computeIfAbsent(followerId, id -> new LongList()).add(userId);
+                edges[0]++;
+            }));
+        } catch (RuntimeException e) {
+            logger.error("Failed to load follow graph; follow queries stay on the database", e);
+            synchronized (this) {
+                pendingChanges = null;
+            }
+            return;
+        }
+
+        synchronized (this) {
+            loadedFollowers.forEach((id, list) -> followers.put(id, list.toSortedArray()));
+            loadedFollowing.forEach((id, list) -> following.put(id, list.toSortedArray()));
+            for (long[] change : pendingChanges) {
+                applyLocked(change[0], change[1], change[2] == 1);
+            }
+            pendingChanges = null;
+            ready = true;
+        }
+        logger.info("Follow graph loaded with {} users and {} edges in {} ms",
+                followers.size(), edges[0], System.currentTimeMillis() - started);
+    }
+
+    private synchronized void apply(long followerId, long userId, boolean follow) {
+        if (pendingChanges != null) {
+            pendingChanges.add(new long[] {followerId, userId, follow ? 1 : 0});
+        }
+        applyLocked(followerId, userId, follow);
+    }
+
+    private void applyLocked(long followerId, long userId, boolean follow) {
+        if (follow) {
+            followers.put(userId, insert(followers.getOrDefault(userId, EMPTY), followerId));
+            following.put(followerId, insert(following.getOrDefault(followerId, EMPTY), userId));
+        } else {
+            followers.computeIfPresent(userId, (id, ids) -> emptyToNull(remove(ids, followerId)));
+            following.computeIfPresent(followerId, (id, ids) -> emptyToNull(remove(ids, userId)));
+        }
+    }
+
+    static long[] insert(long[] ids, long id) {
+        int pos = Arrays.binarySearch(ids, id);
+        if (pos >= 0) {
+            return ids;
+        }
+        int insertAt = -pos - 1;
+        long[] updated = new long[ids.length + 1];
+        System.arraycopy(ids, 0, updated, 0, insertAt);
+        updated[insertAt] = id;
+        System.arraycopy(ids, insertAt, updated, insertAt + 1, ids.length - insertAt);
+        return updated;
+    }
+
+    static long[] remove(long[] ids, long id) {
+        int pos = Arrays.binarySearch(ids, id);
+        if (pos < 0) {
+            return ids;
+        }
+        long[] updated = new long[ids.length - 1];
+        System.arraycopy(ids, 0, updated, 0, pos);
+        System.arraycopy(ids, pos + 1, updated, pos, ids.length - pos - 1);
+        return updated;
+    }
+
+    static long[] slice(long[] ids, long afterId, int limit) {
+        int pos = Arrays.binarySearch(ids, afterId);
+        int from = pos >= 0 ? pos + 1 : -pos - 1;
+        return Arrays.copyOfRange(ids, from, Math.min(ids.length, from + Math.max(limit, 0)));
+    }
+
+    private static long[] emptyToNull(long[] ids) {
+        return ids.length == 0 ? null : ids;
+    }
+
+    private static long[] sorted(List<Long> ids) {
+        return ids.stream().mapToLong(Long::longValue).sorted().toArray();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static final class LongList {
+        private long[] values = new long[4];
+        private int size;
+
+        private void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        private long[] toSortedArray() {
+            long[] result = Arrays.copyOf(values, size);
+            Arrays.sort(result);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.koushik.redditclone.service;
+
+/**
+ * 4-bit count-min sketch used as the TinyLFU admission filter: it estimates how often a
+ * key has been seen recently, with every counter halved once the sample size is reached
+ * so that old popularity fades.
+ */
+class FrequencySketch {
+
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final long[] SEEDS = {
+        0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+    };
+
+    private final long[] table;
+    private final int tableMask;
+    private final int sampleSize;
+    private int additions;
+
+    FrequencySketch(int expectedEntries) {
+        int size = Integer.highestOneBit(Math.max(expectedEntries, 16) - 1) << 1;
+        this.table = new long[size];
+        this.tableMask = size - 1;
+        this.sampleSize = 10 * size;
+    }
+
+    int frequency(long key) {
+        int min = 15;
+        for (int i = 0; i < 4; i++) {
+            min = Math.min(min, counter(key, i));
+        }
+        return min;
+    }
+
+    void increment(long key) {
+        boolean added = false;
+        for (int i = 0; i < 4; i++) {
+            int index = index(key, i);
+            int shift = offset(key, i) << 2;
+            long mask = 0xfL << shift;
+            if ((table[index] & mask) != mask) {
+                table[index] += 1L << shift;
+                added = true;
+            }
+        }
+        if (added && ++additions == sampleSize) {
+            reset();
+        }
+    }
+
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions /= 2;
+    }
+
+    private int counter(long key, int depth) {
+        return (int) ((table[index(key, depth)] >>> (offset(key, depth) << 2)) & 0xfL);
+    }
+
+    private int index(long key, int depth) {
+        return (int) (hash(key, depth) >>> 32) & tableMask;
+    }
+
+    private static int offset(long key, int depth) {
+        return (int) hash(key, depth) & 15;
+    }
+
+    private static long hash(long key, int depth) {
+        long h = (key + SEEDS[depth]) * 0x9e3779b97f4a7c15L;
+        h ^= h >>> 29;
+        h *= 0xbf58476d1ce4e5b9L;
+        return h ^ (h >>> 32);
+    }
+}
@@ -0,0 +1,89 @@
+package com.koushik.redditclone.service;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * In-memory inverted index from case-folded hashtag to the ids of the posts using it.
+ * Kept current by PostService on create and delete, and rebuilt from post_hashtags
+ * in the background after startup.
+ */
+@Service
+@RequiredArgsConstructor
+public class HashtagIndex {
+    private static final Logger logger = LoggerFactory.getLogger(HashtagIndex.class);
+
+    private static final int REBUILD_BATCH = 10000;
+    private static final long[] EMPTY = new long[0];
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Map<String, PostingList> postings = new ConcurrentHashMap<>();
+
+    public void add(long postId, Collection<String> hashtags) {
+        for (String hashtag : hashtags) {
+            postings.computeIfAbsent(normalize(hashtag), tag -> new PostingList()).add(postId);
+        }
+    }
+
+    public void remove(long postId, Collection<String> hashtags) {
+        for (String hashtag : hashtags) {
+            PostingList list = postings.get(normalize(hashtag));
+            if (list != null) {
+                list.remove(postId);
+            }
+        }
+    }
+
+    public long[] newestBefore(String hashtag, long beforeId, int limit) {
+        PostingList list = postings.get(normalize(hashtag));
+        return list == null ? EMPTY : list.newestBefore(beforeId, limit);
+    }
+
+    public long[] newestAfterOffset(String hashtag, int offset, int limit) {
+        PostingList list = postings.get(normalize(hashtag));
+        return list == null ? EMPTY : list.newestAfterOffset(offset, limit);
+    }
+
+    public int count(String hashtag) {
+        PostingList list = postings.get(normalize(hashtag));
+        return list == null ? 0 : list.size();
+    }
+
+    // Older rows store hashtags as written, so stored values go through the analyzer's normalization
+    public static String normalize(String hashtag) {
+        return PostTextAnalyzer.normalizeHashtag(hashtag).substring(1);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        Thread.ofPlatform().name("hashtag-index-rebuild").daemon().start(this::loadAll);
+    }
+
+    // Walks post_hashtags in post id ranges so each batch is an index range scan
+    private void loadAll() {
+        long started = System.currentTimeMillis();
+        Long maxPostId = jdbcTemplate.queryForObject("SELECT coalesce(max(post_id), 0) FROM post_hashtags", Long.class);
+        for (long from = 0; from < maxPostId; from += REBUILD_BATCH) {
+            jdbcTemplate.query(
+                    "SELECT post_id, hashtag FROM post_hashtags WHERE post_id > ? AND post_id <= ?",
+                    rs -> {
+                        postings.computeIfAbsent(normalize(rs.getString(2)), tag -> new PostingList())
+                                .add(rs.getLong(1));
+                    },
+                    from, from + REBUILD_BATCH);
+        }
+        logger.info("Hashtag index rebuilt with {} tags in {} ms", postings.size(),
+                System.currentTimeMillis() - started);
+    }
+}
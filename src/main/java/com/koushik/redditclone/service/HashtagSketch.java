@@ -0,0 +1,129 @@
+package com.koushik.redditclone.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Fixed-memory trending estimator. A Count-Min sketch counts every hashtag, a
+ * Space-Saving summary tracks the top {@code topK} candidates, and each candidate
+ * carries a HyperLogLog of the authors using it. A tag's score is the tighter of the
+ * two count estimates, capped at {@code maxPostsPerAuthor} per distinct author so a
+ * single account repeating a tag cannot push it up the list.
+ *
+ * <p>{@link #decay} halves all counts and retires the older author generation, giving
+ * an exponentially decaying window instead of the exact engine's sliding one.
+ */
+class HashtagSketch {
+
+    private final CountMinSketch counts;
+    private final SpaceSaving<Authors> candidates;
+    private final int topK;
+    private final int hllPrecision;
+    private final int maxPostsPerAuthor;
+
+    HashtagSketch(int topK, double epsilon, double confidence, int hllPrecision, int maxPostsPerAuthor) {
+        this.counts = new CountMinSketch(epsilon, confidence);
+        this.candidates = new SpaceSaving<>(topK);
+        this.topK = topK;
+        this.hllPrecision = hllPrecision;
+        this.maxPostsPerAuthor = maxPostsPerAuthor;
+    }
+
+    synchronized void add(String hashtag, long authorId) {
+        counts.add(hash(hashtag), 1);
+        SpaceSaving.Counter<Authors> counter = candidates.offer(hashtag, 1);
+        if (counter.isNew() || counter.attachment == null) {
+            counter.attachment = new Authors(hllPrecision);
+        }
+        counter.attachment.current.add(mix(authorId));
+    }
+
+    // Authors are not removed: a deleted post's author stays counted until the next decay
+    synchronized void remove(String hashtag) {
+        counts.add(hash(hashtag), -1);
+        candidates.decrement(hashtag, 1);
+    }
+
+    synchronized void decay() {
+        counts.halve();
+        candidates.halve();
+        for (SpaceSaving.Counter<Authors> counter : candidates.counters()) {
+            if (counter.attachment != null) {
+                counter.attachment.rotate(hllPrecision);
+            }
+        }
+    }
+
+    synchronized List<String> top(int limit) {
+        PriorityQueue<Map.Entry<String, Long>> top = new PriorityQueue<>(Map.Entry.comparingByValue());
+        for (SpaceSaving.Counter<Authors> counter : candidates.counters()) {
+            long score = score(counter);
+            if (score <= 0) {
+                continue;
+            }
+            top.offer(Map.entry(counter.key(), score));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+
+        List<Map.Entry<String, Long>> ranked = new ArrayList<>(top);
+        ranked.sort(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()));
+        return ranked.stream().map(Map.Entry::getKey).toList();
+    }
+
+    synchronized long estimate(String hashtag) {
+        return counts.estimate(hash(hashtag));
+    }
+
+    // Upper bound excluding the tag strings themselves: sketch table plus two HLLs per candidate
+    long memoryBytes() {
+        return counts.memoryBytes() + 2L * topK * (1 << hllPrecision);
+    }
+
+    private long score(SpaceSaving.Counter<Authors> counter) {
+        long count = Math.min(counter.count(), counts.estimate(hash(counter.key())));
+        if (counter.attachment == null) {
+            return count;
+        }
+        long authors = counter.attachment.current.estimate(counter.attachment.previous);
+        return Math.min(count, authors * maxPostsPerAuthor);
+    }
+
+    // 64-bit FNV-1a over the UTF-16 chars, finished with a mixer for better high bits
+    private static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    private static long mix(long value) {
+        long h = value * 0x9e3779b97f4a7c15L;
+        h ^= h >>> 30;
+        h *= 0xbf58476d1ce4e5b9L;
+        h ^= h >>> 27;
+        h *= 0x94d049bb133111ebL;
+        return h ^ (h >>> 31);
+    }
+
+    // Two author generations so uniques survive one decay step instead of dropping to zero
+    private static final class Authors {
+        private HyperLogLog current;
+        private HyperLogLog previous;
+
+        private Authors(int precision) {
+            this.current = new HyperLogLog(precision);
+        }
+
+        private void rotate(int precision) {
+            previous = current;
+            current = new HyperLogLog(precision);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.koushik.redditclone.service;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import com.koushik.redditclone.model.Post;
+import com.koushik.redditclone.repository.PostRepository;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Hybrid fan-out home timelines. New posts are pushed into the in-memory timeline of
+ * every follower whose timeline is loaded; authors above the fan-out threshold are
+ * never pushed and are instead pulled from the database when a timeline is read.
+ * Timelines that are not loaded (or were evicted, or lost on restart) are rebuilt
+ * lazily from the follow graph on the next read.
+ */
+@Service
+@RequiredArgsConstructor
+public class HomeTimelineService {
+
+    private final PostRepository postRepository;
+    private final FollowGraph followGraph;
+
+    @Value("${app.feed.timeline-capacity:800}")
+    private int timelineCapacity;
+
+    @Value("${app.feed.fanout-threshold:10000}")
+    private int fanoutThreshold;
+
+    @Value("${app.feed.max-timelines:50000}")
+    private int maxTimelines;
+
+    private Map<Long, Timeline> timelines;
+
+    // Authors whose posts are merged in at read time instead of being pushed
+    private final Set<Long> pullAuthors = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void init() {
+        timelines = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Timeline> eldest) {
+                return size() > maxTimelines;
+            }
+        });
+    }
+
+    public void onPostCreated(Post post) {
+        long authorId = post.getUser().getId();
+        if (pullAuthors.contains(authorId)) {
+            return;
+        }
+        long[] followerIds = followGraph.followerIds(authorId);
+        if (followerIds.length > fanoutThreshold) {
+            pullAuthors.add(authorId);
+            return;
+        }
+        for (long followerId : followerIds) {
+            Timeline timeline = timelines.get(followerId);
+            if (timeline != null) {
+                timeline.ring.add(post.getId(), authorId);
+            }
+        }
+    }
+
+    public void onFollow(Long followerId, Long followeeId) {
+        Timeline timeline = timelines.get(followerId);
+        if (timeline == null) {
+            return;
+        }
+        timeline.follow(followeeId);
+        if (!pullAuthors.contains(followeeId)) {
+            backfill(timeline.ring, List.of(followeeId));
+        }
+    }
+
+    public void onUnfollow(Long followerId, Long followeeId) {
+        Timeline timeline = timelines.get(followerId);
+        if (timeline == null) {
+            return;
+        }
+        timeline.unfollow(followeeId);
+        timeline.ring.removeAuthor(followeeId);
+    }
+
+    /**
+     * Returns up to {@code limit} post ids older than {@code beforeId}, newest first.
+     * Deleted posts are not removed from timelines eagerly; callers drop ids that no
+     * longer resolve to a post.
+     */
+    public long[] newestPostIds(Long userId, long beforeId, int limit) {
+        Timeline timeline = timelineFor(userId);
+        long[] pushed = timeline.ring.newestBefore(beforeId, limit);
+
+        List<Long> followedPullAuthors = Arrays.stream(timeline.following)
+                .filter(pullAuthors::contains)
+                .boxed()
+                .toList();
+        if (followedPullAuthors.isEmpty()) {
+            return pushed;
+        }
+
+        List<Long> pulled = postRepository.findIdsByAuthorsBefore(
+                followedPullAuthors, beforeId, PageRequest.of(0, limit));
+        return mergeDescending(pushed, pulled, limit);
+    }
+
+    private Timeline timelineFor(Long userId) {
+        Timeline timeline = timelines.get(userId);
+        if (timeline != null && timeline.loaded) {
+            return timeline;
+        }
+        if (timeline == null) {
+            Timeline created = new Timeline(new TimelineRing(timelineCapacity));
+            synchronized (created) {
+                timeline = timelines.putIfAbsent(userId, created);
+                if (timeline == null) {
+                    load(userId, created);
+                    return created;
+                }
+            }
+        }
+        // Another read is still backfilling it; wait rather than serve a partial timeline
+        synchronized (timeline) {
+            if (timeline.loaded) {
+                return timeline;
+            }
+        }
+        // That backfill failed and unregistered the timeline
+        return timelineFor(userId);
+    }
+
+    // The timeline is registered before the backfill so posts pushed meanwhile are not
+    // lost; the ring keeps id order and drops duplicates, so the two can interleave
+    private void load(Long userId, Timeline timeline) {
+        try {
+            timeline.following = followGraph.followingIds(userId);
+            if (timeline.following.length > 0) {
+                backfill(timeline.ring, Arrays.stream(timeline.following).boxed().toList());
+            }
+            timeline.loaded = true;
+        } catch (RuntimeException e) {
+            timelines.remove(userId, timeline);
+            throw e;
+        }
+    }
+
+    private void backfill(TimelineRing ring, List<Long> authorIds) {
+        for (Object[] row : postRepository.findIdsAndAuthorsByAuthors(authorIds, PageRequest.of(0, timelineCapacity))) {
+            ring.add((Long) row[0], (Long) row[1]);
+        }
+    }
+
+    private static long[] mergeDescending(long[] pushed, List<Long> pulled, int limit) {
+        long[] merged = new long[Math.min(limit, pushed.length + pulled.size())];
+        int i = 0;
+        int j = 0;
+        int count = 0;
+        long last = Long.MAX_VALUE;
+        while (count < merged.length && (i < pushed.length || j < pulled.size())) {
+            long next;
+            if (j >= pulled.size() || (i < pushed.length && pushed[i] >= pulled.get(j))) {
+                next = pushed[i++];
+            } else {
+                next = pulled.get(j++);
+            }
+            if (next != last) {
+                merged[count++] = next;
+                last = next;
+            }
+        }
+        return count == merged.length ? merged : Arrays.copyOf(merged, count);
+    }
+
+    private static class Timeline {
+        private final TimelineRing ring;
+        private volatile long[] following = new long[0];
+        private volatile boolean loaded;
+
+        Timeline(TimelineRing ring) {
+            this.ring = ring;
+        }
+
+        synchronized void follow(long userId) {
+            following = FollowGraph.insert(following, userId);
+        }
+
+        synchronized void unfollow(long userId) {
+            following = FollowGraph.remove(following, userId);
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.koushik.redditclone.service;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.koushik.redditclone.model.Post;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Recent posts ordered by Reddit-style hot score:
+ * log10(max(engagement, 1)) + (created - epoch) / 45000s, where engagement weighs
+ * likes, comments and shares. A post's age term is fixed at creation, so its score only
+ * changes when its counts do and the order never needs re-sorting as time passes.
+ *
+ * <p>Counts are adjusted in place from the like, comment and share paths, reads walk
+ * the head of a skip list without locking, and posts older than the tracking horizon
+ * are pruned. The index is rebuilt from the posts table in the background on startup.
+ */
+@Service
+@RequiredArgsConstructor
+public class HotPostsIndex {
+    private static final Logger logger = LoggerFactory.getLogger(HotPostsIndex.class);
+
+    private static final long EPOCH_SECONDS = 1134028003L;
+    private static final double SECONDS_PER_ORDER = 45000.0;
+    private static final int COMMENT_WEIGHT = 2;
+    private static final int SHARE_WEIGHT = 3;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PostCounterService postCounterService;
+
+    @Value("${app.trending.hot.max-age-hours:48}")
+    private int maxAgeHours;
+
+    @Value("${app.trending.hot.max-posts:100000}")
+    private int maxPosts;
+
+    private final Map<Long, HotPost> posts = new ConcurrentHashMap<>();
+    private final NavigableSet<HotPost> ranking = new ConcurrentSkipListSet<>(
+            Comparator.comparingDouble((HotPost p) -> p.score).reversed()
+                    .thenComparing(Comparator.comparingLong((HotPost p) -> p.id).reversed()));
+
+    // Non-null while rebuilding: the posts already reloaded, and comments added to the
+    // others since, which a row read from an earlier snapshot would otherwise drop
+    private Set<Long> loadedIds;
+    private Map<Long, Integer> pendingComments;
+
+    public void onPostCreated(Post post) {
+        HotPost hot = new HotPost(post.getId(), epochSecond(post.getTimestamp()), 0, 0, 0);
+        synchronized (this) {
+            if (posts.putIfAbsent(hot.id, hot) == null) {
+                ranking.add(hot);
+                trim();
+            }
+        }
+    }
+
+    public synchronized void onPostDeleted(long postId) {
+        HotPost hot = posts.remove(postId);
+        if (hot != null) {
+            ranking.remove(hot);
+        }
+    }
+
+    public void addLikes(long postId, int delta) {
+        adjust(postId, delta, 0, 0);
+    }
+
+    public void addComments(long postId, int delta) {
+        adjust(postId, 0, delta, 0);
+    }
+
+    public void addShares(long postId, int delta) {
+        adjust(postId, 0, 0, delta);
+    }
+
+    public long[] top(int limit) {
+        long[] ids = new long[Math.min(limit, ranking.size())];
+        int n = 0;
+        Iterator<HotPost> iterator = ranking.iterator();
+        while (n < ids.length && iterator.hasNext()) {
+            ids[n++] = iterator.next().id;
+        }
+        return n == ids.length ? ids : Arrays.copyOf(ids, n);
+    }
+
+    @Scheduled(fixedDelayString = "${app.trending.hot.prune-interval-ms:600000}")
+    public synchronized void prune() {
+        long horizon = System.currentTimeMillis() / 1000 - maxAgeHours * 3600L;
+        posts.values().removeIf(hot -> {
+            if (hot.createdAt < horizon) {
+                ranking.remove(hot);
+                return true;
+            }
+            return false;
+        });
+    }
+
+    public synchronized void writeSnapshot(DataOutputStream out) throws IOException {
+        out.writeInt(posts.size());
+        for (HotPost hot : posts.values()) {
+            out.writeLong(hot.id);
+            out.writeLong(hot.createdAt);
+            out.writeInt(hot.likes);
+            out.writeInt(hot.comments);
+            out.writeInt(hot.shares);
+        }
+    }
+
+    // Restored counts serve reads until the background rebuild replaces them
+    public synchronized void restoreSnapshot(ByteBuffer in) {
+        long horizon = System.currentTimeMillis() / 1000 - maxAgeHours * 3600L;
+        int count = in.getInt();
+        for (int i = 0; i < count; i++) {
+            HotPost hot = new HotPost(in.getLong(), in.getLong(), in.getInt(), in.getInt(), in.getInt());
+            if (hot.createdAt >= horizon && posts.putIfAbsent(hot.id, hot) == null) {
+                ranking.add(hot);
+            }
+        }
+        trim();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        Thread.ofPlatform().name("hot-posts-rebuild").daemon().start(this::loadAll);
+    }
+
+    private void loadAll() {
+        long started = System.currentTimeMillis();
+        LocalDateTime since = LocalDateTime.now().minusHours(maxAgeHours);
+        synchronized (this) {
+            loadedIds = new HashSet<>();
+            pendingComments = new HashMap<>();
+        }
+        try {
+            jdbcTemplate.query(
+                    "SELECT id, timestamp, likes_count, comments_count, share_count FROM posts WHERE timestamp > ?",
+                    rs -> {
+                        long id = rs.getLong(1);
+                        long createdAt = epochSecond(rs.getTimestamp(2).toLocalDateTime());
+                        int likes = rs.getInt(3);
+                        int comments = rs.getInt(4);
+                        int shares = rs.getInt(5);
+                        synchronized (this) {
+                            // Likes and shares committed since the query started are in the pending
+                            // counters; comments are only in the deltas recorded meanwhile
+                            HotPost hot = new HotPost(id, createdAt,
+                                    likes + (int) postCounterService.pendingLikes(id),
+                                    comments + pendingComments.getOrDefault(id, 0),
+                                    shares + (int) postCounterService.pendingShares(id));
+                            loadedIds.add(id);
+                            HotPost previous = posts.put(id, hot);
+                            if (previous != null) {
+                                ranking.remove(previous);
+                            }
+                            ranking.add(hot);
+                        }
+                    },
+                    since);
+        } catch (RuntimeException e) {
+            logger.error("Hot posts rebuild failed; serving the restored and live counts", e);
+            return;
+        } finally {
+            synchronized (this) {
+                loadedIds = null;
+                pendingComments = null;
+                trim();
+            }
+        }
+        logger.info("Hot posts index rebuilt with {} posts in {} ms", posts.size(),
+                System.currentTimeMillis() - started);
+    }
+
+    // Entries are immutable while in the skip list, so an update swaps in a new one
+    private synchronized void adjust(long postId, int likes, int comments, int shares) {
+        if (loadedIds != null && !loadedIds.contains(postId) && comments != 0) {
+            pendingComments.merge(postId, comments, Integer::sum);
+        }
+        HotPost current = posts.get(postId);
+        if (current == null) {
+            return; // older than the horizon or not loaded yet
+        }
+        HotPost updated = new HotPost(postId, current.createdAt,
+                current.likes + likes, current.comments + comments, current.shares + shares);
+        ranking.remove(current);
+        posts.put(postId, updated);
+        ranking.add(updated);
+    }
+
+    private void trim() {
+        while (posts.size() > maxPosts) {
+            HotPost coldest = ranking.pollLast();
+            if (coldest == null) {
+                return;
+            }
+            posts.remove(coldest.id);
+        }
+    }
+
+    private static long epochSecond(LocalDateTime timestamp) {
+        return timestamp.atZone(ZoneId.systemDefault()).toEpochSecond();
+    }
+
+    private static final class HotPost {
+        private final long id;
+        private final long createdAt;
+        private final int likes;
+        private final int comments;
+        private final int shares;
+        private final double score;
+
+        private HotPost(long id, long createdAt, int likes, int comments, int shares) {
+            this.id = id;
+            this.createdAt = createdAt;
+            this.likes = likes;
+            this.comments = comments;
+            this.shares = shares;
+            long engagement = Math.max((long) likes + COMMENT_WEIGHT * comments + SHARE_WEIGHT * shares, 1);
+            this.score = Math.log10(engagement) + (createdAt - EPOCH_SECONDS) / SECONDS_PER_ORDER;
+        }
+    }
+}
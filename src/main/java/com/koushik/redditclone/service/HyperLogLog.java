@@ -0,0 +1,57 @@
+package com.koushik.redditclone.service;
+
+/**
+ * HyperLogLog distinct counter with 2^precision one-byte registers. The relative
+ * standard error is about 1.04 / sqrt(2^precision), e.g. 3.3% at precision 10; small
+ * cardinalities fall back to linear counting and are close to exact.
+ */
+class HyperLogLog {
+
+    private final byte[] registers;
+    private final int precision;
+
+    HyperLogLog(int precision) {
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    void add(long hash) {
+        int index = (int) (hash >>> (64 - precision));
+        // Leading zeros of the remaining bits, capped at 64 - precision
+        int rank = Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+        if (rank > registers[index]) {
+            registers[index] = (byte) rank;
+        }
+    }
+
+    /**
+     * Estimated number of distinct hashes added to this counter or to {@code other}
+     * (which may be null), as if both had been merged.
+     */
+    long estimate(HyperLogLog other) {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (int i = 0; i < m; i++) {
+            int register = registers[i];
+            if (other != null) {
+                register = Math.max(register, other.registers[i]);
+            }
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+
+        double alpha = 0.7213 / (1 + 1.079 / m);
+        double raw = alpha * m * m / sum;
+        if (raw <= 2.5 * m && zeros > 0) {
+            return Math.round(m * Math.log((double) m / zeros));
+        }
+        return Math.round(raw);
+    }
+
+    int memoryBytes() {
+        return registers.length;
+    }
+}
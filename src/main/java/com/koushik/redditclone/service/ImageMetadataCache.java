@@ -0,0 +1,90 @@
+package com.koushik.redditclone.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.koushik.redditclone.model.ImageData;
+import com.koushik.redditclone.repository.ImageRepository;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * LRU cache of image rows by file name for the image endpoint. Rows only change when
+ * their variants are recorded, which invalidates the entry; a load that raced with
+ * an invalidation is not cached. Unknown names are not cached.
+ */
+@Service
+@RequiredArgsConstructor
+public class ImageMetadataCache {
+
+    private final ImageRepository imageRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.images.metadata-cache-size:10000}")
+    private int maxEntries;
+
+    private Map<String, ImageData> entries;
+    private long generation;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ImageData> eldest) {
+                return size() > maxEntries;
+            }
+        };
+
+        FunctionCounter.builder("cache.gets", hits, LongAdder::sum)
+                .tag("cache", "imageMetadata").tag("result", "hit").register(meterRegistry);
+        FunctionCounter.builder("cache.gets", misses, LongAdder::sum)
+                .tag("cache", "imageMetadata").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("cache.size", this, ImageMetadataCache::size)
+                .tag("cache", "imageMetadata").register(meterRegistry);
+    }
+
+    public Optional<ImageData> get(String name) {
+        long stamp;
+        synchronized (this) {
+            ImageData cached = entries.get(name);
+            if (cached != null) {
+                hits.increment();
+                return Optional.of(cached);
+            }
+            stamp = generation;
+        }
+        misses.increment();
+
+        // The rows are only ever read from here, so one instance is shared by all requests
+        Optional<ImageData> loaded = imageRepository.findByName(name);
+        loaded.ifPresent(image -> {
+            synchronized (this) {
+                if (generation == stamp) {
+                    entries.put(name, image);
+                }
+            }
+        });
+        return loaded;
+    }
+
+    public synchronized void invalidate(String name) {
+        generation++;
+        entries.remove(name);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+}
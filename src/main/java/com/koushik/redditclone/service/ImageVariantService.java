@@ -0,0 +1,164 @@
+package com.koushik.redditclone.service;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.koushik.redditclone.model.ImageData;
+import com.koushik.redditclone.repository.ImageRepository;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Renders the resized variants of uploaded images in the background, so a post is
+ * published as soon as the original is on disk and serves the original until its
+ * variants are recorded. Uploads that miss the bounded queue, or were stored before
+ * variants existed, are picked up by the backfill that runs at startup.
+ */
+@Service
+@RequiredArgsConstructor
+public class ImageVariantService {
+    private static final Logger logger = LoggerFactory.getLogger(ImageVariantService.class);
+
+    private static final int BACKFILL_BATCH = 100;
+
+    private final ImageRepository imageRepository;
+    private final ImageMetadataCache imageMetadataCache;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.images.variants.thumb-width:320}")
+    private int thumbWidth;
+
+    @Value("${app.images.variants.feed-width:720}")
+    private int feedWidth;
+
+    @Value("${app.images.variants.full-width:2048}")
+    private int fullWidth;
+
+    @Value("${app.images.variants.jpeg-quality:0.82}")
+    private float jpegQuality;
+
+    @Value("${app.images.variants.threads:2}")
+    private int threads;
+
+    @Value("${app.images.variants.queue-capacity:1000}")
+    private int queueCapacity;
+
+    private ImageVariants variants;
+    private ThreadPoolExecutor executor;
+
+    private final LongAdder rendered = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    @PostConstruct
+    public void start() {
+        variants = new ImageVariants(thumbWidth, feedWidth, fullWidth, jpegQuality);
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("image-variants-", 0).daemon().factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        FunctionCounter.builder("images.variants", rendered, LongAdder::sum)
+                .tag("result", "rendered").register(meterRegistry);
+        FunctionCounter.builder("images.variants", failed, LongAdder::sum)
+                .tag("result", "failed").register(meterRegistry);
+        FunctionCounter.builder("images.variants", rejected, LongAdder::sum)
+                .tag("result", "rejected").register(meterRegistry);
+        Gauge.builder("images.variants.queue.size", executor, e -> e.getQueue().size()).register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    // Runs once the image row has committed; the worker's update must find it
+    public void schedule(ImageData image) {
+        long id = image.getId();
+        String name = image.getName();
+        String path = image.getPath();
+        Runnable submit = () -> {
+            try {
+                executor.execute(() -> generate(id, name, path));
+            } catch (RejectedExecutionException e) {
+                rejected.increment();
+                logger.warn("Image variant queue is full; image {} is served as uploaded until the next backfill", id);
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submit.run();
+                }
+            });
+        } else {
+            submit.run();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        Thread.ofPlatform().name("image-variants-backfill").daemon().start(this::renderMissing);
+    }
+
+    private void renderMissing() {
+        long afterId = 0;
+        int total = 0;
+        try {
+            List<ImageData> batch;
+            do {
+                batch = imageRepository.findWithoutVariants(afterId, PageRequest.of(0, BACKFILL_BATCH));
+                for (ImageData image : batch) {
+                    generate(image.getId(), image.getName(), image.getPath());
+                    afterId = image.getId();
+                }
+                total += batch.size();
+            } while (batch.size() == BACKFILL_BATCH);
+        } catch (RuntimeException e) {
+            logger.error("Image variant backfill stopped after {} images", total, e);
+            return;
+        }
+        if (total > 0) {
+            logger.info("Rendered variants for {} existing images", total);
+        }
+    }
+
+    void generate(long id, String name, String path) {
+        try {
+            ImageVariants.Rendered result = variants.render(Path.of(path));
+            if (result == null) {
+                // Not re-encodable (e.g. GIF); every size points at the original so it is not retried
+                imageRepository.updateVariants(id, path, path, path, null);
+            } else {
+                imageRepository.updateVariants(id, result.thumb().toString(), result.feed().toString(),
+                        result.full().toString(), result.type());
+            }
+            imageMetadataCache.invalidate(name);
+            rendered.increment();
+        } catch (Exception e) {
+            failed.increment();
+            logger.warn("Failed to render variants for image {} ({})", id, path, e);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.koushik.redditclone.service;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Set;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+
+/**
+ * Renders the thumbnail, feed and full variants of one image with ImageIO. Images are
+ * never upscaled; opaque images become JPEGs and images with transparency PNGs. The
+ * encoders are given no metadata, so EXIF/GPS and other ancillary data are dropped.
+ */
+class ImageVariants {
+
+    // Animated GIFs would lose every frame but the first
+    private static final Set<String> PASS_THROUGH_FORMATS = Set.of("gif");
+
+    private final int thumbWidth;
+    private final int feedWidth;
+    private final int fullWidth;
+    private final float jpegQuality;
+
+    ImageVariants(int thumbWidth, int feedWidth, int fullWidth, float jpegQuality) {
+        this.thumbWidth = thumbWidth;
+        this.feedWidth = feedWidth;
+        this.fullWidth = fullWidth;
+        this.jpegQuality = jpegQuality;
+    }
+
+    record Rendered(Path thumb, Path feed, Path full, String type) {
+    }
+
+    /**
+     * Writes the variants next to the source file, or returns null when the format
+     * cannot or should not be re-encoded.
+     */
+    Rendered render(Path source) throws IOException {
+        BufferedImage image = decode(source);
+        if (image == null) {
+            return null;
+        }
+        boolean alpha = image.getColorModel().hasAlpha();
+        String extension = alpha ? "png" : "jpg";
+
+        Path full = write(resize(image, fullWidth, alpha), variantPath(source, "full", extension));
+        BufferedImage feedImage = resize(image, feedWidth, alpha);
+        Path feed = write(feedImage, variantPath(source, "feed", extension));
+        // Scaling down from the feed rendition is cheaper and looks the same at this size
+        Path thumb = write(resize(feedImage, thumbWidth, alpha), variantPath(source, "thumb", extension));
+        return new Rendered(thumb, feed, full, alpha ? "image/png" : "image/jpeg");
+    }
+
+    private BufferedImage decode(Path source) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(source.toFile())) {
+            Iterator<ImageReader> readers = in != null ? ImageIO.getImageReaders(in) : null;
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                if (PASS_THROUGH_FORMATS.contains(reader.getFormatName().toLowerCase(Locale.ROOT))) {
+                    return null;
+                }
+                reader.setInput(in, true, true);
+                // Subsample huge uploads while decoding, keeping at least 2x the largest width
+                int step = Math.max(1, reader.getWidth(0) / (fullWidth * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Halves the size per step until the target width; one bilinear pass over a large
+    // reduction skips most source pixels and aliases badly
+    static BufferedImage resize(BufferedImage source, int targetWidth, boolean alpha) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        targetWidth = Math.min(targetWidth, width);
+        int targetHeight = Math.max(1, (int) Math.round((double) height * targetWidth / width));
+
+        BufferedImage current = source;
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            BufferedImage next = new BufferedImage(width, height,
+                    alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = next.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                if (!alpha) {
+                    graphics.setColor(Color.WHITE);
+                    graphics.fillRect(0, 0, width, height);
+                }
+                graphics.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = next;
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    private Path write(BufferedImage image, Path target) throws IOException {
+        String format = image.getColorModel().hasAlpha() ? "png" : "jpeg";
+        ImageWriter writer = ImageIO.getImageWritersByFormatName(format).next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        if (format.equals("jpeg")) {
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+        }
+
+        Files.deleteIfExists(target);
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(target.toFile())) {
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return target;
+    }
+
+    private static Path variantPath(Path source, String size, String extension) {
+        return source.resolveSibling(source.getFileName() + "." + size + "." + extension);
+    }
+}
@@ -0,0 +1,152 @@
+package com.koushik.redditclone.service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import com.koushik.redditclone.dto.NotificationMessage;
+import com.koushik.redditclone.dto.PostCountsMessage;
+import com.koushik.redditclone.dto.PostView;
+import com.koushik.redditclone.repository.PostRepository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Pushes live post counters and notifications over the STOMP broker. Changes are only
+ * marked dirty and sent on a short flush interval, so a post liked hundreds of times a
+ * second still produces one frame per interval on /topic/posts/{id}/counts, and each
+ * user gets at most one frame per interval on /user/queue/notifications.
+ *
+ * <p>Subscriptions are tracked from the broker's session events so counters are only
+ * loaded and sent for posts someone is actually viewing.
+ */
+@Service
+@RequiredArgsConstructor
+public class LivePushService {
+
+    private static final String POST_TOPIC_PREFIX = "/topic/posts/";
+    private static final String POST_TOPIC_SUFFIX = "/counts";
+    private static final String NOTIFICATION_QUEUE = "/queue/notifications";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final PostRepository postRepository;
+    private final PostCounterService postCounterService;
+
+    private final Map<Long, Integer> viewers = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, Long>> sessions = new ConcurrentHashMap<>();
+    private final Set<Long> dirtyPosts = ConcurrentHashMap.newKeySet();
+    private final Map<Long, List<NotificationMessage>> pendingNotifications = new ConcurrentHashMap<>();
+
+    // Marked after commit so the flush never reads counts from an uncommitted change
+    public void onCountsChanged(long postId) {
+        if (!viewers.containsKey(postId)) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dirtyPosts.add(postId);
+                }
+            });
+        } else {
+            dirtyPosts.add(postId);
+        }
+    }
+
+    public void onNotification(long recipientId, NotificationMessage message) {
+        pendingNotifications.compute(recipientId, (id, messages) -> {
+            List<NotificationMessage> list = messages == null ? new ArrayList<>() : messages;
+            list.add(message);
+            return list;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.push.flush-interval-ms:250}")
+    public void flush() {
+        List<Long> postIds = new ArrayList<>();
+        for (Iterator<Long> it = dirtyPosts.iterator(); it.hasNext(); ) {
+            postIds.add(it.next());
+            it.remove();
+        }
+        if (!postIds.isEmpty()) {
+            for (PostView view : postRepository.findViewsByIdIn(postIds)) {
+                messagingTemplate.convertAndSend(POST_TOPIC_PREFIX + view.getId() + POST_TOPIC_SUFFIX,
+                        new PostCountsMessage(view.getId(),
+                                view.getLikesCount() + postCounterService.pendingLikes(view.getId()),
+                                view.getCommentsCount(),
+                                view.getShareCount() + postCounterService.pendingShares(view.getId())));
+            }
+        }
+
+        for (Long userId : pendingNotifications.keySet()) {
+            List<NotificationMessage> messages = pendingNotifications.remove(userId);
+            if (messages != null) {
+                // Sessions are named by user id (StompPrincipal), so only the recipient receives these
+                messagingTemplate.convertAndSendToUser(userId.toString(), NOTIFICATION_QUEUE, messages);
+            }
+        }
+    }
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        StompHeaderAccessor headers = StompHeaderAccessor.wrap(event.getMessage());
+        Long postId = postIdOf(headers.getDestination());
+        if (postId == null || headers.getSessionId() == null || headers.getSubscriptionId() == null) {
+            return;
+        }
+        sessions.computeIfAbsent(headers.getSessionId(), id -> new ConcurrentHashMap<>())
+                .put(headers.getSubscriptionId(), postId);
+        viewers.merge(postId, 1, Integer::sum);
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        StompHeaderAccessor headers = StompHeaderAccessor.wrap(event.getMessage());
+        Map<String, Long> subscriptions = sessions.get(headers.getSessionId());
+        if (subscriptions != null && headers.getSubscriptionId() != null) {
+            release(subscriptions.remove(headers.getSubscriptionId()));
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        Map<String, Long> subscriptions = sessions.remove(event.getSessionId());
+        if (subscriptions != null) {
+            subscriptions.values().forEach(this::release);
+        }
+    }
+
+    private void release(Long postId) {
+        if (postId != null) {
+            viewers.computeIfPresent(postId, (id, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+
+    private static Long postIdOf(String destination) {
+        if (destination == null || !destination.startsWith(POST_TOPIC_PREFIX)
+                || !destination.endsWith(POST_TOPIC_SUFFIX)) {
+            return null;
+        }
+        try {
+            return Long.valueOf(destination.substring(POST_TOPIC_PREFIX.length(),
+                    destination.length() - POST_TOPIC_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.koushik.redditclone.service;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.koushik.redditclone.dto.PageCursor;
+import com.koushik.redditclone.dto.PostResponse;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Fans newly created posts out to Server-Sent Events subscribers. Each subscriber gets a
+ * small bounded queue drained by its own virtual thread, so an idle subscriber only
+ * costs a parked virtual thread and its emitter, and a slow one never holds up the
+ * others: when its queue is full its stream is closed, and the client reconnects with
+ * Last-Event-ID to catch up.
+ *
+ * <p>Event ids are {@link PageCursor} tokens, usable with {@code /api/posts/since}.
+ * A reconnecting subscriber is registered before its missed posts are loaded, so a post
+ * committed in between is queued live; posts that are both replayed and queued are sent
+ * once.
+ */
+@Service
+public class NewPostBroadcaster {
+
+    // Identity sentinel queued by the heartbeat; sent as an SSE comment
+    private static final PostResponse HEARTBEAT = new PostResponse();
+
+    @Value("${app.posts.stream.max-subscribers:10000}")
+    private int maxSubscribers;
+
+    @Value("${app.posts.stream.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${app.posts.stream.queue-size:64}")
+    private int queueSize;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ThreadFactory threads = Thread.ofVirtual().name("post-stream-", 0).factory();
+
+    // missed: loads the posts to send before live ones, oldest first (replay after a reconnect)
+    public SseEmitter subscribe(Supplier<List<PostResponse>> missed) {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many stream subscribers");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(emitter, new ArrayBlockingQueue<>(queueSize));
+        subscriber.thread = threads.newThread(() -> deliver(subscriber));
+
+        // Live posts queue up from here on while the replay is loaded
+        subscribers.add(subscriber);
+        try {
+            subscriber.replay = missed.get();
+        } catch (RuntimeException e) {
+            subscribers.remove(subscriber);
+            throw e;
+        }
+        emitter.onCompletion(() -> close(subscriber));
+        emitter.onTimeout(() -> close(subscriber));
+        emitter.onError(e -> close(subscriber));
+        subscriber.thread.start();
+        return emitter;
+    }
+
+    // Deferred to after commit so subscribers never see a post that was rolled back
+    public void publish(PostResponse post) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    offerAll(post);
+                }
+            });
+        } else {
+            offerAll(post);
+        }
+    }
+
+    // Lets proxies keep idle streams open and surfaces dead connections
+    @Scheduled(fixedRateString = "${app.posts.stream.heartbeat-ms:30000}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.queue.offer(HEARTBEAT);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Subscriber subscriber : subscribers) {
+            close(subscriber);
+            subscriber.emitter.complete();
+        }
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    private void offerAll(PostResponse post) {
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.queue.offer(post)) {
+                close(subscriber);
+                subscriber.emitter.complete();
+            }
+        }
+    }
+
+    private void deliver(Subscriber subscriber) {
+        try {
+            Set<Long> replayed = new HashSet<>();
+            for (PostResponse post : subscriber.replay) {
+                send(subscriber.emitter, post);
+                replayed.add(post.getId());
+            }
+            subscriber.replay = null;
+
+            while (!Thread.currentThread().isInterrupted()) {
+                PostResponse post = subscriber.queue.take();
+                if (post == HEARTBEAT) {
+                    subscriber.emitter.send(SseEmitter.event().comment("keep-alive"));
+                } else if (replayed.isEmpty() || !replayed.remove(post.getId())) {
+                    send(subscriber.emitter, post);
+                }
+            }
+        } catch (InterruptedException e) {
+            // Closed
+        } catch (IOException | IllegalStateException e) {
+            // Client went away or the emitter already completed
+            close(subscriber);
+        }
+    }
+
+    private static void send(SseEmitter emitter, PostResponse post) throws IOException {
+        emitter.send(SseEmitter.event()
+                .id(new PageCursor(post.getTimestamp(), post.getId()).encode())
+                .name("post")
+                .data(post));
+    }
+
+    private void close(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            subscriber.thread.interrupt();
+        }
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final BlockingQueue<PostResponse> queue;
+        private Thread thread;
+        private List<PostResponse> replay;
+
+        private Subscriber(SseEmitter emitter, BlockingQueue<PostResponse> queue) {
+            this.emitter = emitter;
+            this.queue = queue;
+        }
+    }
+}
@@ -1,65 +1,480 @@
 package com.koushik.redditclone.service;
 
-import lombok.RequiredArgsConstructor;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import com.koushik.redditclone.model.Notification;
-import com.koushik.redditclone.model.Post;
+import com.koushik.redditclone.dto.NotificationMessage;
+import com.koushik.redditclone.dto.NotificationView;
+import com.koushik.redditclone.dto.PageCursor;
+import com.koushik.redditclone.dto.PageResponse;
 import com.koushik.redditclone.model.User;
 import com.koushik.redditclone.repository.NotificationRepository;
 
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Asynchronous notification pipeline. Callers only enqueue a small event (after their
+ * transaction commits), so likes and comments never wait on a notification insert.
+ * A background writer drains the queue in short windows, coalesces events for the same
+ * recipient, post and type ("alice and 41 others liked your post"), resolves post
+ * authors in one query and writes the rows with a JDBC batch.
+ *
+ * <p>When the queue is full, {@code app.notifications.overflow} decides: {@code drop}
+ * the event, {@code block} the caller until there is room, or {@code spill} it to a
+ * local file that the writer replays once the queue has drained.
+ *
+ * <p>Unread counts are served from a bounded in-memory {@link UnreadCounts}, kept
+ * current by the writer and by {@link #markRead}; a user's count is only loaded from
+ * the database when it is not cached.
+ */
 @Service
 @RequiredArgsConstructor
-@Transactional(readOnly = true)
 public class NotificationService {
+    private static final Logger logger = LoggerFactory.getLogger(NotificationService.class);
+
+    private static final String INSERT_SQL =
+            "INSERT INTO notifications (recipient_id, sender_id, content, type, post_id) VALUES (?, ?, ?, ?, ?)";
+
+    public enum Overflow { DROP, BLOCK, SPILL }
+
     private final NotificationRepository notificationRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final MeterRegistry meterRegistry;
+    private final LivePushService livePushService;
 
-    @Transactional
-    public void notifyLike(User recipient, User sender, Post post) {
-        Notification notification = Notification.builder()
-                .recipient(recipient)
-                .sender(sender)
-                .content(String.format("%s liked your post", sender.getUsername()))
-                .type("LIKE")
-                .post(post)
-                .build();
-        notificationRepository.save(notification);
+    @Value("${app.notifications.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${app.notifications.overflow:drop}")
+    private String overflowSetting;
+
+    @Value("${app.notifications.coalesce-window-ms:500}")
+    private long coalesceWindowMs;
+
+    @Value("${app.notifications.max-batch:1000}")
+    private int maxBatch;
+
+    @Value("${app.notifications.spill-file:data/notifications.spill}")
+    private String spillFile;
+
+    @Value("${app.notifications.unread-cache-size:100000}")
+    private int unreadCacheSize;
+
+    private BlockingQueue<Event> queue;
+    private Overflow overflow;
+    private Thread writer;
+    private UnreadCounts unreadCounts;
+    private volatile boolean running = true;
+
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder spilled = new LongAdder();
+    private final LongAdder written = new LongAdder();
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        overflow = Overflow.valueOf(overflowSetting.trim().toUpperCase(Locale.ROOT));
+        unreadCounts = new UnreadCounts(unreadCacheSize);
+
+        FunctionCounter.builder("notifications.dropped", dropped, LongAdder::sum).register(meterRegistry);
+        FunctionCounter.builder("notifications.spilled", spilled, LongAdder::sum).register(meterRegistry);
+        FunctionCounter.builder("notifications.written", written, LongAdder::sum).register(meterRegistry);
+        Gauge.builder("notifications.queue.size", queue, BlockingQueue::size).register(meterRegistry);
+        Gauge.builder("notifications.unread-cache.size", unreadCounts, UnreadCounts::size).register(meterRegistry);
+
+        writer = Thread.ofPlatform().name("notification-writer").daemon().start(this::drainLoop);
     }
 
-    @Transactional
-    public void notifyComment(User recipient, User sender, Post post) {
-        Notification notification = Notification.builder()
-                .recipient(recipient)
-                .sender(sender)
-                .content(String.format("%s commented on your post", sender.getUsername()))
-                .type("COMMENT")
-                .post(post)
-                .build();
-        notificationRepository.save(notification);
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(10));
     }
 
-    @Transactional
-    public void notifyShare(User recipient, User sender, Post post) {
-        Notification notification = Notification.builder()
-                .recipient(recipient)
-                .sender(sender)
-                .content(String.format("%s shared your post", sender.getUsername()))
-                .type("SHARE")
-                .post(post)
-                .build();
-        notificationRepository.save(notification);
+    public void notifyLike(Long postId, User sender) {
+        emit(new Event("LIKE", postId, null, sender.getId(), sender.getUsername()));
     }
 
-    @Transactional
-    public void notifyNewFollower(User recipient, User sender) {
-        Notification notification = Notification.builder()
-                .recipient(recipient)
-                .sender(sender)
-                .content(String.format("%s started following you", sender.getUsername()))
-                .type("FOLLOW")
+    public void notifyComment(Long postId, User sender) {
+        emit(new Event("COMMENT", postId, null, sender.getId(), sender.getUsername()));
+    }
+
+    public void notifyShare(Long postId, User sender) {
+        emit(new Event("SHARE", postId, null, sender.getId(), sender.getUsername()));
+    }
+
+    public void notifyNewFollower(Long recipientId, User sender) {
+        emit(new Event("FOLLOW", null, recipientId, sender.getId(), sender.getUsername()));
+    }
+
+    // Notifications reference their post, so they go before the post does.
+    // They were all sent to the post's author, whose unread count is reloaded after commit.
+    public void deleteForPost(Long postId, Long authorId) {
+        notificationRepository.deleteByPostId(postId);
+        afterCommit(() -> unreadCounts.invalidate(List.of(authorId)));
+    }
+
+    public PageResponse<NotificationView> getNotifications(User user, String cursor, int size) {
+        long beforeId = cursor == null || cursor.isBlank() ? Long.MAX_VALUE : PageCursor.decode(cursor).getId();
+        Slice<NotificationView> slice =
+                notificationRepository.findViewsByRecipientIdBefore(user.getId(), beforeId, PageRequest.of(0, size));
+
+        String nextCursor = null;
+        if (slice.hasNext() && slice.hasContent()) {
+            NotificationView last = slice.getContent().get(slice.getNumberOfElements() - 1);
+            nextCursor = new PageCursor(last.getTimestamp(), last.getId()).encode();
+        }
+        return PageResponse.<NotificationView>builder()
+                .data(slice.getContent())
+                .total(-1)
+                .page(0)
+                .limit(size)
+                .hasMore(slice.hasNext())
+                .nextCursor(nextCursor)
                 .build();
-        notificationRepository.save(notification);
+    }
+
+    public long getUnreadCount(User user) {
+        Long cached = unreadCounts.get(user.getId());
+        if (cached != null) {
+            return cached;
+        }
+        long stamp = unreadCounts.stamp(user.getId());
+        long count = notificationRepository.countUnread(user.getId());
+        unreadCounts.put(user.getId(), count, stamp);
+        return count;
+    }
+
+    // Marks everything up to and including upToId as read and returns the new unread count
+    public long markRead(User user, Long upToId) {
+        List<Long> users = List.of(user.getId());
+        Map<Long, Long> deltas = new HashMap<>();
+        unreadCounts.beginWrite(users);
+        try {
+            int updated = notificationRepository.markReadUpTo(user.getId(), upToId);
+            deltas.put(user.getId(), (long) -updated);
+        } finally {
+            unreadCounts.endWrite(users, deltas);
+        }
+        return getUnreadCount(user);
+    }
+
+    private void emit(Event event) {
+        afterCommit(() -> enqueue(event));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private void enqueue(Event event) {
+        if (queue.offer(event)) {
+            return;
+        }
+        switch (overflow) {
+            case DROP -> dropped.increment();
+            case BLOCK -> {
+                try {
+                    queue.put(event);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    dropped.increment();
+                }
+            }
+            case SPILL -> spill(event);
+        }
+    }
+
+    private void spill(Event event) {
+        spill(List.of(event));
+    }
+
+    private synchronized void spill(List<Event> events) {
+        StringBuilder lines = new StringBuilder();
+        for (Event event : events) {
+            lines.append(event.toLine()).append('\n');
+        }
+        try {
+            Path path = Path.of(spillFile);
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            Files.writeString(path, lines, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            spilled.add(events.size());
+        } catch (IOException e) {
+            dropped.add(events.size());
+            logger.warn("Failed to spill {} notifications, dropping them", events.size(), e);
+        }
+    }
+
+    private void drainLoop() {
+        List<Event> batch = new ArrayList<>();
+        while (running || !queue.isEmpty()) {
+            try {
+                Event first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    replaySpill();
+                    continue;
+                }
+                batch.add(first);
+                // Wait out the coalescing window so a burst lands in one batch
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(coalesceWindowMs);
+                while (batch.size() < maxBatch && running) {
+                    long remaining = deadline - System.nanoTime();
+                    Event next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // Shutdown: fall through and flush what is queued
+            }
+            queue.drainTo(batch, Math.max(maxBatch - batch.size(), 0));
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void replaySpill() {
+        Path path = Path.of(spillFile);
+        Path replaying = path.resolveSibling(path.getFileName() + ".replaying");
+        List<Event> batch = new ArrayList<>();
+        try {
+            // A file left by a crash mid-replay is finished first; moving the spill over it
+            // would lose it. Its events may be written twice, never dropped.
+            if (!Files.exists(replaying)) {
+                if (!Files.exists(path)) {
+                    return;
+                }
+                synchronized (this) {
+                    Files.move(path, replaying);
+                }
+            }
+            try (BufferedReader reader = Files.newBufferedReader(replaying, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    try {
+                        batch.add(Event.fromLine(line));
+                    } catch (RuntimeException e) {
+                        // A torn last line from a crash while spilling; skip it rather than retry forever
+                        logger.warn("Skipping unreadable spilled notification: {}", line);
+                        continue;
+                    }
+                    if (batch.size() >= maxBatch) {
+                        write(batch);
+                        batch.clear();
+                    }
+                }
+            }
+            write(batch);
+            Files.delete(replaying);
+        } catch (IOException | RuntimeException e) {
+            logger.error("Failed to replay spilled notifications from {}", replaying, e);
+        }
+    }
+
+    private void write(List<Event> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        try {
+            Map<Long, Long> authors = findAuthors(events);
+            List<Object[]> rows = coalesce(events, authors);
+            Set<Long> recipients = new LinkedHashSet<>();
+            rows.forEach(row -> recipients.add((Long) row[0]));
+            Map<Long, Long> deltas = new HashMap<>();
+            boolean inserted = false;
+            unreadCounts.beginWrite(recipients);
+            try {
+                rows = insert(rows);
+                rows.forEach(row -> deltas.merge((Long) row[0], 1L, Long::sum));
+                inserted = true;
+            } finally {
+                unreadCounts.endWrite(recipients, deltas);
+                if (!inserted) {
+                    // Part of the batch may have been written; reload these counts
+                    unreadCounts.invalidate(recipients);
+                }
+            }
+            written.add(rows.size());
+            push(rows);
+        } catch (RuntimeException e) {
+            if (overflow == Overflow.SPILL) {
+                // Replayed once the database is back; rows already inserted may be written twice
+                logger.error("Failed to write {} notifications, spilling them", events.size(), e);
+                spill(events);
+                return;
+            }
+            dropped.add(events.size());
+            logger.error("Failed to write {} notifications", events.size(), e);
+        }
+    }
+
+    // Returns the rows that were written
+    private List<Object[]> insert(List<Object[]> rows) {
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+            return rows;
+        } catch (DataIntegrityViolationException e) {
+            // A post was deleted meanwhile; write the rest one by one
+            List<Object[]> inserted = new ArrayList<>(rows.size());
+            for (Object[] row : rows) {
+                try {
+                    jdbcTemplate.update(INSERT_SQL, row);
+                    inserted.add(row);
+                } catch (DataIntegrityViolationException ignored) {
+                    dropped.increment();
+                }
+            }
+            return inserted;
+        }
+    }
+
+    private void push(List<Object[]> rows) {
+        for (Object[] row : rows) {
+            livePushService.onNotification((Long) row[0],
+                    new NotificationMessage((String) row[3], (String) row[2], (Long) row[1], (Long) row[4]));
+        }
+    }
+
+    private Map<Long, Long> findAuthors(List<Event> events) {
+        Set<Long> postIds = new LinkedHashSet<>();
+        for (Event event : events) {
+            if (event.postId != null) {
+                postIds.add(event.postId);
+            }
+        }
+        Map<Long, Long> authors = new HashMap<>();
+        if (!postIds.isEmpty()) {
+            namedParameterJdbcTemplate.query("SELECT id, user_id FROM posts WHERE id IN (:ids)",
+                    new MapSqlParameterSource("ids", postIds),
+                    rs -> {
+                        authors.put(rs.getLong(1), rs.getLong(2));
+                    });
+        }
+        return authors;
+    }
+
+    // One row per (recipient, type, post), naming the first sender and counting the rest
+    private static List<Object[]> coalesce(List<Event> events, Map<Long, Long> authors) {
+        Map<String, Group> groups = new LinkedHashMap<>();
+        for (Event event : events) {
+            Long recipientId = event.postId != null ? authors.get(event.postId) : event.recipientId;
+            if (recipientId == null || recipientId.equals(event.senderId)) {
+                continue; // post gone, or acting on your own post
+            }
+            String key = recipientId + ":" + event.type + ":" + event.postId;
+            groups.computeIfAbsent(key, k -> new Group(recipientId, event)).senders.add(event.senderId);
+        }
+
+        List<Object[]> rows = new ArrayList<>(groups.size());
+        for (Group group : groups.values()) {
+            Event first = group.first;
+            rows.add(new Object[] {group.recipientId, first.senderId,
+                    message(first.type, first.senderUsername, group.senders.size() - 1),
+                    first.type, first.postId});
+        }
+        return rows;
+    }
+
+    private static String message(String type, String sender, int others) {
+        String who = switch (others) {
+            case 0 -> sender;
+            case 1 -> sender + " and 1 other";
+            default -> sender + " and " + others + " others";
+        };
+        return switch (type) {
+            case "LIKE" -> who + " liked your post";
+            case "COMMENT" -> who + " commented on your post";
+            case "SHARE" -> who + " shared your post";
+            case "FOLLOW" -> who + " started following you";
+            default -> who;
+        };
+    }
+
+    private static final class Group {
+        private final Long recipientId;
+        private final Event first;
+        private final Set<Long> senders = new LinkedHashSet<>();
+
+        private Group(Long recipientId, Event first) {
+            this.recipientId = recipientId;
+            this.first = first;
+        }
+    }
+
+    // Post events carry the post id and are routed to its author; FOLLOW carries the recipient
+    private static final class Event {
+        private final String type;
+        private final Long postId;
+        private final Long recipientId;
+        private final Long senderId;
+        private final String senderUsername;
+
+        private Event(String type, Long postId, Long recipientId, Long senderId, String senderUsername) {
+            this.type = type;
+            this.postId = postId;
+            this.recipientId = recipientId;
+            this.senderId = senderId;
+            this.senderUsername = senderUsername;
+        }
+
+        private String toLine() {
+            return type + "\t" + postId + "\t" + recipientId + "\t" + senderId + "\t" + senderUsername;
+        }
+
+        private static Event fromLine(String line) {
+            String[] fields = line.split("\t", 5);
+            return new Event(fields[0], parseId(fields[1]), parseId(fields[2]), parseId(fields[3]), fields[4]);
+        }
+
+        private static Long parseId(String value) {
+            return "null".equals(value) ? null : Long.valueOf(value);
+        }
     }
 }
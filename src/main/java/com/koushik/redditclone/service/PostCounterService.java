@@ -0,0 +1,127 @@
+package com.koushik.redditclone.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Write-behind like and share counters. Increments land in per-post LongAdder cells,
+ * so concurrent likes on one hot post never contend on a row lock, and are applied
+ * to the posts table as additive batched updates on a short interval and on shutdown.
+ * Readers add {@link #pendingLikes}/{@link #pendingShares} to the stored counts.
+ */
+@Service
+@RequiredArgsConstructor
+public class PostCounterService {
+    private static final Logger logger = LoggerFactory.getLogger(PostCounterService.class);
+
+    private static final String FLUSH_SQL =
+            "UPDATE posts SET likes_count = likes_count + ?, share_count = share_count + ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PostViewCache postViewCache;
+
+    private final Map<Long, Counters> counters = new ConcurrentHashMap<>();
+
+    // Entries removed on the previous flush; re-checked once so a late increment is not lost
+    private List<Map.Entry<Long, Counters>> retiring = new ArrayList<>();
+
+    @Value("${app.counters.idle-flushes-before-eviction:30}")
+    private int idleFlushesBeforeEviction;
+
+    public void addLikes(long postId, long delta) {
+        counters.computeIfAbsent(postId, id -> new Counters()).likes.add(delta);
+    }
+
+    public void addShares(long postId, long delta) {
+        counters.computeIfAbsent(postId, id -> new Counters()).shares.add(delta);
+    }
+
+    public long pendingLikes(long postId) {
+        Counters c = counters.get(postId);
+        return c == null ? 0 : c.likes.sum() - c.flushedLikes;
+    }
+
+    public long pendingShares(long postId) {
+        Counters c = counters.get(postId);
+        return c == null ? 0 : c.shares.sum() - c.flushedShares;
+    }
+
+    @Scheduled(fixedDelayString = "${app.counters.flush-interval-ms:1000}")
+    public synchronized void flush() {
+        List<Map.Entry<Long, Counters>> dirty = new ArrayList<>();
+        List<Object[]> batch = new ArrayList<>();
+        List<Map.Entry<Long, Counters>> nowRetiring = new ArrayList<>();
+
+        for (Map.Entry<Long, Counters> entry : counters.entrySet()) {
+            Counters c = entry.getValue();
+            if (collect(entry, dirty, batch)) {
+                c.idleFlushes = 0;
+            } else if (++c.idleFlushes >= idleFlushesBeforeEviction && counters.remove(entry.getKey(), c)) {
+                nowRetiring.add(entry);
+            }
+        }
+        for (Map.Entry<Long, Counters> entry : retiring) {
+            collect(entry, dirty, batch);
+        }
+
+        if (!batch.isEmpty()) {
+            try {
+                jdbcTemplate.batchUpdate(FLUSH_SQL, batch);
+            } catch (RuntimeException e) {
+                // Deltas stay pending and are retried on the next flush
+                logger.error("Failed to flush {} post counters", batch.size(), e);
+                nowRetiring.addAll(retiring);
+                retiring = nowRetiring;
+                return;
+            }
+            for (int i = 0; i < dirty.size(); i++) {
+                Counters c = dirty.get(i).getValue();
+                c.flushedLikes += (Long) batch.get(i)[0];
+                c.flushedShares += (Long) batch.get(i)[1];
+                // Cached views carry the stored counts, which now include this delta
+                postViewCache.invalidate(dirty.get(i).getKey());
+            }
+        }
+        retiring = nowRetiring;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private static boolean collect(Map.Entry<Long, Counters> entry,
+            List<Map.Entry<Long, Counters>> dirty, List<Object[]> batch) {
+        Counters c = entry.getValue();
+        long likes = c.likes.sum() - c.flushedLikes;
+        long shares = c.shares.sum() - c.flushedShares;
+        if (likes == 0 && shares == 0) {
+            return false;
+        }
+        dirty.add(entry);
+        batch.add(new Object[] {likes, shares, entry.getKey()});
+        return true;
+    }
+
+    // Adders only ever grow by the applied deltas; flushed totals are written by the flusher alone
+    private static final class Counters {
+        private final LongAdder likes = new LongAdder();
+        private final LongAdder shares = new LongAdder();
+        private volatile long flushedLikes;
+        private volatile long flushedShares;
+        private int idleFlushes;
+    }
+}
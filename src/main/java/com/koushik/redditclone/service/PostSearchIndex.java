@@ -0,0 +1,268 @@
+package com.koushik.redditclone.service;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * In-process full-text index over post content, ranked with BM25. PostService keeps it
+ * current on create and delete; at startup it is rebuilt from the posts table by a
+ * fork-join pool over post id ranges, while live changes are queued and replayed on
+ * the new index before it replaces the old one.
+ *
+ * <p>Deleted posts are dropped from the document table and skipped at query time;
+ * their postings are reclaimed by the next rebuild.
+ */
+@Service
+@RequiredArgsConstructor
+public class PostSearchIndex {
+    private static final Logger logger = LoggerFactory.getLogger(PostSearchIndex.class);
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int REBUILD_BATCH = 5000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.search.rebuild-parallelism:4}")
+    private int rebuildParallelism;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Segment segment = new Segment();
+
+    // Non-null while a rebuild runs; content is null for deletes
+    private List<Map.Entry<Long, String>> pendingChanges;
+
+    @Getter
+    @AllArgsConstructor
+    public static class Hits {
+        private final long[] postIds;
+        private final int total;
+    }
+
+    public void add(long postId, String content) {
+        List<String> terms = SearchTokenizer.tokenize(content);
+        lock.writeLock().lock();
+        try {
+            segment.add(postId, terms);
+            if (pendingChanges != null) {
+                pendingChanges.add(new AbstractMap.SimpleEntry<>(postId, content));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long postId) {
+        lock.writeLock().lock();
+        try {
+            segment.remove(postId);
+            if (pendingChanges != null) {
+                pendingChanges.add(new AbstractMap.SimpleEntry<>(postId, null));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Best matches first, skipping {@code offset}; ties go to the newer post.
+     */
+    public Hits search(String query, int offset, int limit) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(SearchTokenizer.tokenize(query)));
+        Map<Long, Double> scores = new HashMap<>();
+
+        lock.readLock().lock();
+        try {
+            int documents = segment.documentLengths.size();
+            if (documents == 0) {
+                return new Hits(new long[0], 0);
+            }
+            double averageLength = (double) segment.totalLength / documents;
+
+            for (String term : terms) {
+                TermPostings postings = segment.postings.get(term);
+                if (postings == null) {
+                    continue;
+                }
+                double df = Math.min(postings.size(), documents);
+                double idf = Math.log(1 + (documents - df + 0.5) / (df + 0.5));
+                TermPostings.Cursor cursor = postings.cursor();
+                while (cursor.next()) {
+                    Integer length = segment.documentLengths.get(cursor.postId);
+                    if (length == null) {
+                        continue; // deleted
+                    }
+                    double tf = cursor.frequency;
+                    double score = idf * tf * (K1 + 1) / (tf + K1 * (1 - B + B * length / averageLength));
+                    scores.merge(cursor.postId, score, Double::sum);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        int wanted = offset + limit;
+        PriorityQueue<Map.Entry<Long, Double>> top = new PriorityQueue<>(
+                Map.Entry.<Long, Double>comparingByValue().thenComparing(Map.Entry.comparingByKey()));
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            top.offer(entry);
+            if (top.size() > wanted) {
+                top.poll();
+            }
+        }
+
+        List<Map.Entry<Long, Double>> ranked = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            ranked.add(top.poll());
+        }
+        Collections.reverse(ranked);
+        long[] ids = ranked.stream().skip(offset).mapToLong(Map.Entry::getKey).toArray();
+        return new Hits(ids, scores.size());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        Thread.ofPlatform().name("post-search-rebuild").daemon().start(this::loadAll);
+    }
+
+    private void loadAll() {
+        long started = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            pendingChanges = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Segment rebuilt;
+        ForkJoinPool pool = new ForkJoinPool(rebuildParallelism);
+        try {
+            Long maxId = jdbcTemplate.queryForObject("SELECT coalesce(max(id), 0) FROM posts", Long.class);
+            rebuilt = pool.invoke(new RebuildTask(0, maxId));
+        } catch (RuntimeException e) {
+            logger.error("Failed to rebuild post search index", e);
+            lock.writeLock().lock();
+            try {
+                pendingChanges = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return;
+        } finally {
+            pool.shutdown();
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (Map.Entry<Long, String> change : pendingChanges) {
+                if (change.getValue() == null) {
+                    rebuilt.remove(change.getKey());
+                } else {
+                    rebuilt.add(change.getKey(), SearchTokenizer.tokenize(change.getValue()));
+                }
+            }
+            pendingChanges = null;
+            segment = rebuilt;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Post search index rebuilt with {} posts and {} terms in {} ms",
+                rebuilt.documentLengths.size(), rebuilt.postings.size(), System.currentTimeMillis() - started);
+    }
+
+    // Splits (from, to] down to batch-sized id ranges; results are merged in id order
+    private final class RebuildTask extends RecursiveTask<Segment> {
+        private static final long serialVersionUID = 1L;
+
+        private final long from;
+        private final long to;
+
+        private RebuildTask(long from, long to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Segment compute() {
+            if (to - from <= REBUILD_BATCH) {
+                Segment batch = new Segment();
+                jdbcTemplate.query("SELECT id, content FROM posts WHERE id > ? AND id <= ? ORDER BY id",
+                        rs -> {
+                            batch.add(rs.getLong(1), SearchTokenizer.tokenize(rs.getString(2)));
+                        },
+                        from, to);
+                return batch;
+            }
+            long mid = from + (to - from) / 2;
+            RebuildTask lower = new RebuildTask(from, mid);
+            lower.fork();
+            Segment upper = new RebuildTask(mid, to).compute();
+            Segment merged = lower.join();
+            merged.addAll(upper);
+            return merged;
+        }
+    }
+
+    private static final class Segment {
+        private final Map<String, TermPostings> postings = new HashMap<>();
+        private final Map<Long, Integer> documentLengths = new HashMap<>();
+        private long totalLength;
+
+        void add(long postId, List<String> terms) {
+            if (documentLengths.containsKey(postId)) {
+                return;
+            }
+            Map<String, Integer> frequencies = new HashMap<>();
+            for (String term : terms) {
+                frequencies.merge(term, 1, Integer::sum);
+            }
+            for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), t -> new TermPostings()).add(postId, entry.getValue());
+            }
+            documentLengths.put(postId, terms.size());
+            totalLength += terms.size();
+        }
+
+        void remove(long postId) {
+            Integer length = documentLengths.remove(postId);
+            if (length != null) {
+                totalLength -= length;
+            }
+        }
+
+        // Every id in other is greater than every id here
+        void addAll(Segment other) {
+            for (Map.Entry<String, TermPostings> entry : other.postings.entrySet()) {
+                TermPostings existing = postings.get(entry.getKey());
+                if (existing == null) {
+                    postings.put(entry.getKey(), entry.getValue());
+                } else {
+                    existing.addAll(entry.getValue());
+                }
+            }
+            documentLengths.putAll(other.documentLengths);
+            totalLength += other.totalLength;
+        }
+    }
+}
@@ -2,47 +2,84 @@ package com.koushik.redditclone.service;
 
 import com.koushik.redditclone.dto.CommentRequest;
 import com.koushik.redditclone.dto.CommentResponse;
+import com.koushik.redditclone.dto.CommentView;
 import com.koushik.redditclone.dto.CreatePostRequest;
+import com.koushik.redditclone.dto.PageCursor;
 import com.koushik.redditclone.dto.PageResponse;
 import com.koushik.redditclone.dto.PostResponse;
-import com.koushik.redditclone.model.Comment;
+import com.koushik.redditclone.dto.PostView;
 import com.koushik.redditclone.model.ImageData;
 import com.koushik.redditclone.model.Post;
 import com.koushik.redditclone.model.User;
 import com.koushik.redditclone.repository.CommentRepository;
 import com.koushik.redditclone.repository.PostRepository;
 import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class PostService {
+  private static final Logger logger = LoggerFactory.getLogger(PostService.class);
+
+  private static final int MAX_HOT_POSTS = 100;
+  private static final int MAX_SINCE_POSTS = 100;
+  private static final int MAX_PAGE_SIZE = 100;
+  private static final int MAX_COMMENT_BATCH = 500;
+  private static final int MAX_COMMENT_LENGTH = 1000;
+
+  @Value("${app.posts.backfill-likes-count:false}")
+  private boolean backfillLikesCount;
 
   private final PostRepository postRepository;
   private final FileStorageService fileStorageService;
   private final NotificationService notificationService;
   private final CommentRepository commentRepository;
   private final UserService userService;
+  private final HomeTimelineService homeTimelineService;
+  private final PostCounterService postCounterService;
+  private final PostViewCache postViewCache;
+  private final HashtagIndex hashtagIndex;
+  private final TrendingService trendingService;
+  private final HotPostsIndex hotPostsIndex;
+  private final PostSearchIndex postSearchIndex;
+  private final LivePushService livePushService;
+  private final NewPostBroadcaster newPostBroadcaster;
 
   @Transactional
   public PostResponse createPost(CreatePostRequest request, User currentUser) throws IOException {
-    List<String> hashtags = extractHashtags(request.getContent());
+    List<String> hashtags = PostTextAnalyzer.analyze(request.getContent()).hashtags();
 
     Post post =
         Post.builder().content(request.getContent()).hashtags(hashtags).user(currentUser).build();
@@ -59,21 +96,25 @@ public class PostService {
     }
 
     Post savedPost = postRepository.save(post);
-    return mapToPostResponse(savedPost);
-  }
-
-  private List<String> extractHashtags(String content) {
-    Pattern pattern = Pattern.compile("#\\w+");
-    Matcher matcher = pattern.matcher(content);
-    return matcher.results().map(matchResult -> matchResult.group()).collect(Collectors.toList());
+    // A rolled-back post must not show up in timelines, tags, trends or search
+    afterCommit(
+        () -> {
+          homeTimelineService.onPostCreated(savedPost);
+          hashtagIndex.add(savedPost.getId(), hashtags);
+          trendingService.onPostCreated(savedPost);
+          hotPostsIndex.onPostCreated(savedPost);
+          postSearchIndex.add(savedPost.getId(), savedPost.getContent());
+        });
+    PostResponse response = toPostResponse(toPostView(savedPost), false);
+    newPostBroadcaster.publish(response);
+    return response;
   }
 
   public PageResponse<PostResponse> getAllPosts(int page, int size) {
-    PageRequest pageRequest = PageRequest.of(page, size, Sort.by("timestamp").descending());
-    Page<Post> postPage = postRepository.findAllWithUser(pageRequest);
+    PageRequest pageRequest = PageRequest.of(page, size);
+    Page<PostView> postPage = postRepository.findAllViews(pageRequest);
 
-    List<PostResponse> posts =
-        postPage.getContent().stream().map(this::mapToPostResponse).collect(Collectors.toList());
+    List<PostResponse> posts = toPostResponses(postPage.getContent());
 
     return PageResponse.<PostResponse>builder()
         .data(posts)
@@ -84,20 +125,80 @@ public class PostService {
         .build();
   }
 
+  public PageResponse<PostResponse> getAllPosts(String cursor, int size) {
+    size = clampPageSize(size);
+    PageRequest limit = PageRequest.of(0, size + 1);
+    List<Long> ids;
+    if (cursor.isBlank()) {
+      ids = postRepository.findLatestIds(limit);
+    } else {
+      PageCursor after = PageCursor.decode(cursor);
+      ids = postRepository.findIdsBefore(after.getTimestamp(), after.getId(), limit);
+    }
+    return toCursorPage(findViewsInOrder(ids), size);
+  }
+
+  // Posts newer than the cursor. Rows are read oldest first so a client paging forward
+  // never skips any; each page is returned newest first, and nextCursor is its newest
+  // post (or the given cursor when there is nothing new).
+  //
+  // The cursor orders by the JVM creation timestamp, not by commit order: a post stamped
+  // just before another but committed after it can land behind a cursor already handed
+  // out and will not be returned. The gap is bounded by createPost's transaction time
+  // (milliseconds), so /since and stream replay are for catching up, not an exact log.
+  public PageResponse<PostResponse> getPostsSince(String cursor, int size) {
+    int limit = Math.min(Math.max(size, 1), MAX_SINCE_POSTS);
+    PageCursor after = PageCursor.decode(cursor);
+    List<Long> ids =
+        postRepository.findIdsAfter(after.getTimestamp(), after.getId(), PageRequest.of(0, limit + 1));
+    boolean hasMore = ids.size() > limit;
+    List<PostView> posts = new ArrayList<>(findViewsInOrder(hasMore ? ids.subList(0, limit) : ids));
+
+    String nextCursor = cursor;
+    if (!posts.isEmpty()) {
+      PostView newest = posts.get(posts.size() - 1);
+      nextCursor = new PageCursor(newest.getTimestamp(), newest.getId()).encode();
+    }
+    Collections.reverse(posts);
+
+    return PageResponse.<PostResponse>builder()
+        .data(toPostResponses(posts))
+        .total(-1)
+        .limit(limit)
+        .hasMore(hasMore)
+        .nextCursor(nextCursor)
+        .build();
+  }
+
+  // A reconnecting EventSource sends the last event id (a cursor); replay what it missed.
+  // The replay is loaded after the subscriber is registered so nothing falls in between.
+  public SseEmitter streamNewPosts(String lastEventId) {
+    if (lastEventId != null && !lastEventId.isBlank()) {
+      PageCursor.decode(lastEventId); // reject a bad id before subscribing
+    }
+    return newPostBroadcaster.subscribe(
+        () -> {
+          if (lastEventId == null || lastEventId.isBlank()) {
+            return List.of();
+          }
+          List<PostResponse> missed =
+              new ArrayList<>(getPostsSince(lastEventId, MAX_SINCE_POSTS).getData());
+          Collections.reverse(missed);
+          return missed;
+        });
+  }
+
   public PageResponse<PostResponse> getUserPosts(String username, int page, int size) {
     try {
-      System.out.println("Getting posts for username: " + username + ", page: " + page);
-      User user = userService.getUserByUsername(username);
-      System.out.println("Found user with ID: " + user.getId());
+      Long userId = userService.getUserIdByUsername(username);
 
-      PageRequest pageRequest = PageRequest.of(page, size, Sort.by("timestamp").descending());
-      Page<Post> postPage = postRepository.findByUserId(user.getId(), pageRequest);
-      System.out.println("Found " + postPage.getTotalElements() + " total posts");
-      System.out.println("Current page has " + postPage.getContent().size() + " posts");
+      PageRequest pageRequest = PageRequest.of(page, size);
+      Page<PostView> postPage = postRepository.findViewsByUserId(userId, pageRequest);
+      logger.debug(
+          "Page {} of posts for {} (id {}): {} of {} posts",
+          page, username, userId, postPage.getNumberOfElements(), postPage.getTotalElements());
 
-      List<PostResponse> posts =
-          postPage.getContent().stream().map(this::mapToPostResponse).collect(Collectors.toList());
-      System.out.println("Mapped " + posts.size() + " posts to response");
+      List<PostResponse> posts = toPostResponses(postPage.getContent());
 
       return PageResponse.<PostResponse>builder()
           .data(posts)
@@ -113,119 +214,291 @@ public class PostService {
     }
   }
 
+  public PageResponse<PostResponse> getUserPosts(String username, String cursor, int size) {
+    Long userId;
+    try {
+      userId = userService.getUserIdByUsername(username);
+    } catch (UsernameNotFoundException e) {
+      throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found");
+    }
+
+    size = clampPageSize(size);
+    PageRequest limit = PageRequest.of(0, size + 1);
+    List<Long> ids;
+    if (cursor.isBlank()) {
+      ids = postRepository.findLatestIdsByUserId(userId, limit);
+    } else {
+      PageCursor after = PageCursor.decode(cursor);
+      ids =
+          postRepository.findIdsBeforeByUserId(
+              userId, after.getTimestamp(), after.getId(), limit);
+    }
+    return toCursorPage(findViewsInOrder(ids), size);
+  }
+
+  public PageResponse<PostResponse> getHomeFeed(User currentUser, String cursor, int size) {
+    size = clampPageSize(size);
+    long beforeId =
+        cursor == null || cursor.isBlank() ? Long.MAX_VALUE : PageCursor.decode(cursor).getId();
+    long[] ids = homeTimelineService.newestPostIds(currentUser.getId(), beforeId, size + 1);
+    return toCursorPage(findViewsInOrder(Arrays.stream(ids).boxed().toList()), size);
+  }
+
+  // Pages come straight from the in-memory hashtag index; only the views touch the database
+  public PageResponse<PostResponse> getHashtagPosts(String hashtag, String cursor, int size) {
+    int limit = clampPageSize(size);
+    long beforeId = cursor.isBlank() ? Long.MAX_VALUE : PageCursor.decode(cursor).getId();
+    long[] ids = hashtagIndex.newestBefore(hashtag, beforeId, limit + 1);
+    return toCursorPage(findViewsInOrder(Arrays.stream(ids).boxed().toList()), limit);
+  }
+
+  public PageResponse<PostResponse> getHashtagPosts(String hashtag, int page, int size) {
+    size = validatePage(page, size);
+    long[] ids = hashtagIndex.newestAfterOffset(hashtag, offsetOf(page, size), size);
+    int total = hashtagIndex.count(hashtag);
+    return PageResponse.<PostResponse>builder()
+        .data(toPostResponses(findViewsInOrder(Arrays.stream(ids).boxed().toList())))
+        .total(total)
+        .page(page)
+        .limit(size)
+        .hasMore((long) (page + 1) * size < total)
+        .build();
+  }
+
+  // Ranked ids come from the in-memory hot index; views are served like any other page
+  public List<PostResponse> getHotPosts(int limit) {
+    long[] ids = hotPostsIndex.top(Math.min(Math.max(limit, 1), MAX_HOT_POSTS));
+    return toPostResponses(findViewsInOrder(Arrays.stream(ids).boxed().toList()));
+  }
+
+  public PageResponse<PostResponse> searchPosts(String query, int page, int size) {
+    size = validatePage(page, size);
+    PostSearchIndex.Hits hits = postSearchIndex.search(query, offsetOf(page, size), size);
+    return PageResponse.<PostResponse>builder()
+        .data(toPostResponses(findViewsInOrder(Arrays.stream(hits.getPostIds()).boxed().toList())))
+        .total(hits.getTotal())
+        .page(page)
+        .limit(size)
+        .hasMore((long) (page + 1) * size < hits.getTotal())
+        .build();
+  }
+
+  private static int clampPageSize(int size) {
+    return Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+  }
+
+  // Offset pages: a negative page or an empty size is an error, an oversized one is clamped
+  private static int validatePage(int page, int size) {
+    if (page < 0 || size < 1) {
+      throw new ResponseStatusException(
+          HttpStatus.BAD_REQUEST, "page must be at least 0 and size at least 1");
+    }
+    return Math.min(size, MAX_PAGE_SIZE);
+  }
+
+  private static int offsetOf(int page, int size) {
+    long offset = (long) page * size;
+    if (offset > Integer.MAX_VALUE - size) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "page is too large");
+    }
+    return (int) offset;
+  }
+
+  // Serves views from the cache in the given order, loading all misses in one query.
+  // Ids whose post no longer exists are dropped.
+  private List<PostView> findViewsInOrder(List<Long> ids) {
+    Map<Long, PostView> found = new HashMap<>();
+    Map<Long, Long> missing = new HashMap<>();
+    for (Long id : ids) {
+      PostView view = postViewCache.get(id);
+      if (view != null) {
+        found.put(id, view);
+      } else {
+        missing.put(id, postViewCache.stamp(id));
+      }
+    }
+
+    if (!missing.isEmpty()) {
+      for (PostView view : postRepository.findViewsByIdIn(missing.keySet())) {
+        postViewCache.put(view, missing.get(view.getId()));
+        found.put(view.getId(), view);
+      }
+    }
+
+    return ids.stream().map(found::get).filter(Objects::nonNull).collect(Collectors.toList());
+  }
+
+  // Queries fetch size + 1 rows; the extra row only tells us whether another page exists
+  private PageResponse<PostResponse> toCursorPage(List<PostView> posts, int size) {
+    boolean hasMore = posts.size() > size;
+    List<PostView> page = hasMore ? posts.subList(0, size) : posts;
+
+    String nextCursor = null;
+    if (hasMore && !page.isEmpty()) {
+      PostView last = page.get(page.size() - 1);
+      nextCursor = new PageCursor(last.getTimestamp(), last.getId()).encode();
+    }
+
+    return PageResponse.<PostResponse>builder()
+        .data(toPostResponses(page))
+        .total(-1)
+        .limit(size)
+        .hasMore(hasMore)
+        .nextCursor(nextCursor)
+        .build();
+  }
+
+  // One round trip: the comment insert and the counter increment are a single statement
   @Transactional
   public void addComment(Long postId, CommentRequest request, User currentUser) {
+    validateComment(request);
     try {
-      Post post = postRepository
-          .findById(postId)
-          .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Post not found"));
+      commentRepository.insertAndCount(
+          postId, currentUser.getId(), request.getContent(), LocalDateTime.now());
+    } catch (DataIntegrityViolationException e) {
+      throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Post not found");
+    }
+    invalidateAfterCommit(postId);
+    afterCommit(() -> hotPostsIndex.addComments(postId, 1));
+    livePushService.onCountsChanged(postId);
+    notificationService.notifyComment(postId, currentUser);
+  }
 
-      Comment comment = Comment.builder()
-          .content(request.getContent())
-          .post(post)
-          .user(currentUser)
-          .build();
+  // Bulk ingestion for importers and bots: batched inserts plus one counter update
+  @Transactional
+  public void addComments(Long postId, List<CommentRequest> requests, User currentUser) {
+    if (requests == null || requests.isEmpty() || requests.size() > MAX_COMMENT_BATCH) {
+      throw new ResponseStatusException(
+          HttpStatus.BAD_REQUEST, "A batch must contain 1 to " + MAX_COMMENT_BATCH + " comments");
+    }
+    requests.forEach(this::validateComment);
 
-      commentRepository.save(comment);
-      post.setCommentsCount(post.getCommentsCount() + 1);
-      Post savedPost = postRepository.save(post);
+    List<String> contents = requests.stream().map(CommentRequest::getContent).toList();
+    try {
+      commentRepository.insertBatch(postId, currentUser.getId(), contents, LocalDateTime.now());
+    } catch (DataIntegrityViolationException e) {
+      throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Post not found");
+    }
+    postRepository.addCommentsCount(postId, contents.size());
+    invalidateAfterCommit(postId);
+    int added = contents.size();
+    afterCommit(() -> hotPostsIndex.addComments(postId, added));
+    livePushService.onCountsChanged(postId);
+    notificationService.notifyComment(postId, currentUser);
+  }
 
-      // Temporarily comment out notifications
-      /*
-      if (!savedPost.getUser().equals(currentUser)) {
-        notificationService.notifyComment(savedPost.getUser(), currentUser, savedPost);
-      }
-      */
-    } catch (Exception e) {
-      throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to add comment");
+  private void validateComment(CommentRequest request) {
+    if (request == null || request.getContent() == null || request.getContent().isBlank()) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Comment content is required");
+    }
+    if (request.getContent().length() > MAX_COMMENT_LENGTH) {
+      throw new ResponseStatusException(
+          HttpStatus.BAD_REQUEST, "Comment must be at most " + MAX_COMMENT_LENGTH + " characters");
     }
   }
 
-  @Transactional(readOnly = true)
+  // Offset pages of comments; like the cursor variant, no count query is issued (total is -1)
   public PageResponse<CommentResponse> getComments(Long postId, int page, int size) {
+    size = validatePage(page, size);
     // Adjust for 0-based page index
     int pageIndex = Math.max(0, page - 1);
-    PageRequest pageRequest = PageRequest.of(pageIndex, size);
-    
-    // Load comments with relationships
-    Page<Comment> commentPage = commentRepository.findByPostIdOrderByTimestampDesc(postId, pageRequest);
-
-    List<CommentResponse> comments = commentPage.getContent().stream()
-        .map(comment -> {
-            return CommentResponse.builder()
-                .id(comment.getId())
-                .content(comment.getContent())
-                .createdAt(comment.getTimestamp())
-                .user(CommentResponse.UserSummary.builder()
-                    .id(comment.getUser().getId())
-                    .username(comment.getUser().getUsername())
-                    .build())
-                .build();
-        })
-        .collect(Collectors.toList());
+    offsetOf(pageIndex, size);
+    Slice<CommentView> slice =
+        commentRepository.findViewsByPostId(postId, PageRequest.of(pageIndex, size));
+    return toCommentPage(slice, page, size);
+  }
+
+  public PageResponse<CommentResponse> getComments(Long postId, String cursor, int size) {
+    size = clampPageSize(size);
+    Slice<CommentView> slice;
+    if (cursor.isBlank()) {
+      slice = commentRepository.findViewsByPostId(postId, PageRequest.of(0, size));
+    } else {
+      PageCursor after = PageCursor.decode(cursor);
+      slice =
+          commentRepository.findViewsByPostIdBefore(
+              postId, after.getTimestamp(), after.getId(), PageRequest.of(0, size));
+    }
+    return toCommentPage(slice, 0, size);
+  }
+
+  private PageResponse<CommentResponse> toCommentPage(Slice<CommentView> slice, int page, int size) {
+    List<CommentResponse> comments =
+        slice.getContent().stream()
+            .map(
+                comment ->
+                    CommentResponse.builder()
+                        .id(comment.getId())
+                        .content(comment.getContent())
+                        .createdAt(comment.getTimestamp())
+                        .user(
+                            CommentResponse.UserSummary.builder()
+                                .id(comment.getAuthorId())
+                                .username(comment.getAuthorUsername())
+                                .build())
+                        .build())
+            .collect(Collectors.toList());
+
+    String nextCursor = null;
+    if (slice.hasNext() && !comments.isEmpty()) {
+      CommentView last = slice.getContent().get(comments.size() - 1);
+      nextCursor = new PageCursor(last.getTimestamp(), last.getId()).encode();
+    }
 
     return PageResponse.<CommentResponse>builder()
         .data(comments)
-        .total(commentPage.getTotalElements())
+        .total(-1)
         .page(page)
         .limit(size)
-        .hasMore(commentPage.hasNext())
+        .hasMore(slice.hasNext())
+        .nextCursor(nextCursor)
         .build();
   }
 
+  // The like row is written here; the post's counter is applied write-behind
   @Transactional
   public void likePost(Long postId, User currentUser) {
-    Post post = postRepository
-        .findById(postId)
-        .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Post not found"));
-    
-    if (post.getLikes().contains(currentUser)) {
-      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Already liked");
+    int inserted;
+    try {
+      inserted = postRepository.insertLike(postId, currentUser.getId());
+    } catch (DataIntegrityViolationException e) {
+      throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Post not found");
     }
-    
-    post.getLikes().add(currentUser);
-    Post savedPost = postRepository.save(post);
 
-    // Temporarily comment out notifications
-    /*
-    if (!savedPost.getUser().equals(currentUser)) {
-      notificationService.notifyLike(savedPost.getUser(), currentUser, savedPost);
+    if (inserted == 0) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Already liked");
     }
-    */
+    // Counted once the like row has committed, so a rollback leaves no phantom like
+    afterCommit(() -> postCounterService.addLikes(postId, 1));
+    invalidateAfterCommit(postId);
+    afterCommit(() -> hotPostsIndex.addLikes(postId, 1));
+    livePushService.onCountsChanged(postId);
+    notificationService.notifyLike(postId, currentUser);
   }
 
   @Transactional
   public void unlikePost(Long postId, User currentUser) {
     try {
-      Post post =
-          postRepository
-              .findById(postId)
-              .orElseThrow(
-                  () -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Post not found"));
-
-      post.getLikes().remove(currentUser);
-      postRepository.save(post);
+      if (postRepository.deleteLike(postId, currentUser.getId()) > 0) {
+        afterCommit(() -> postCounterService.addLikes(postId, -1));
+        invalidateAfterCommit(postId);
+        afterCommit(() -> hotPostsIndex.addLikes(postId, -1));
+        livePushService.onCountsChanged(postId);
+      }
     } catch (Exception e) {
       throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to unlike post");
     }
   }
 
-  @Transactional
   public void sharePost(Long postId, User currentUser) {
-    Post post =
-        postRepository
-            .findById(postId)
-            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Post not found"));
-
-    post.setShareCount(post.getShareCount() + 1);
-    Post savedPost = postRepository.save(post);
-
-    // Temporarily comment out notifications
-    /*
-    if (!savedPost.getUser().equals(currentUser)) {
-      notificationService.notifyShare(savedPost.getUser(), currentUser, savedPost);
+    if (!postRepository.existsById(postId)) {
+      throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Post not found");
     }
-    */
+    postCounterService.addShares(postId, 1);
+    invalidateAfterCommit(postId);
+    afterCommit(() -> hotPostsIndex.addShares(postId, 1));
+    livePushService.onCountsChanged(postId);
+    notificationService.notifyShare(postId, currentUser);
   }
 
   @Transactional
@@ -243,7 +516,18 @@ public class PostService {
 
       // Clear comments first to ensure proper cascade deletion
       post.getComments().clear();
+      notificationService.deleteForPost(postId, post.getUser().getId());
+      // Loaded now; the in-memory indexes are only updated once the delete has committed
+      List<String> hashtags = List.copyOf(post.getHashtags());
       postRepository.delete(post);
+      afterCommit(
+          () -> {
+            hashtagIndex.remove(postId, hashtags);
+            trendingService.onPostDeleted(post);
+            hotPostsIndex.onPostDeleted(postId);
+            postSearchIndex.remove(postId);
+            postViewCache.invalidate(postId);
+          });
     } catch (ResponseStatusException e) {
       throw e; // Re-throw existing status exceptions
     } catch (Exception e) {
@@ -252,32 +536,42 @@ public class PostService {
     }
   }
 
-  private PostResponse mapToPostResponse(Post post) {
-    String imageUrl = null;
-    if (post.getImage() != null) {
-      imageUrl = "/api/images/" + post.getImage().getName();
-    }
+  // Resolves the viewer and their likes once per page rather than once per post
+  private List<PostResponse> toPostResponses(List<PostView> posts) {
+    Set<Long> likedIds = likedPostIds(posts);
+    return posts.stream()
+        .map(post -> toPostResponse(post, likedIds.contains(post.getId())))
+        .collect(Collectors.toList());
+  }
 
+  private Set<Long> likedPostIds(List<PostView> posts) {
     Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-    if (auth == null) {
-      return PostResponse.builder()
-          .id(post.getId())
-          .content(post.getContent())
-          .imageUrl(imageUrl)
-          .timestamp(post.getTimestamp())
-          .user(
-              PostResponse.UserSummary.builder()
-                  .id(post.getUser().getId())
-                  .username(post.getUser().getUsername())
-                  .profileUrl("/user/" + post.getUser().getUsername())
-                  .build())
-          .likesCount(post.getLikes().size())
-          .commentsCount(post.getCommentsCount())
-          .shareCount(post.getShareCount())
-          .isLiked(false)
-          .build();
+    if (posts.isEmpty() || auth == null || !(auth.getPrincipal() instanceof User currentUser)) {
+      return Set.of();
+    }
+    List<Long> postIds = posts.stream().map(PostView::getId).collect(Collectors.toList());
+    return new HashSet<>(postRepository.findLikedPostIds(currentUser.getId(), postIds));
+  }
+
+  private static PostView toPostView(Post post) {
+    return new PostView(
+        post.getId(),
+        post.getContent(),
+        post.getImage() != null ? post.getImage().getName() : null,
+        post.getTimestamp(),
+        post.getUser().getId(),
+        post.getUser().getUsername(),
+        post.getLikesCount(),
+        post.getCommentsCount(),
+        post.getShareCount());
+  }
+
+  private PostResponse toPostResponse(PostView post, boolean isLiked) {
+    String imageUrl = null;
+    if (post.getImageName() != null) {
+      // Feed-sized rendition; the original until the variants are rendered
+      imageUrl = "/api/images/" + post.getImageName() + "?size=feed";
     }
-    User currentUser = (User) auth.getPrincipal();
 
     return PostResponse.builder()
         .id(post.getId())
@@ -286,14 +580,47 @@ public class PostService {
         .timestamp(post.getTimestamp())
         .user(
             PostResponse.UserSummary.builder()
-                .id(post.getUser().getId())
-                .username(post.getUser().getUsername())
-                .profileUrl("/user/" + post.getUser().getUsername())
+                .id(post.getAuthorId())
+                .username(post.getAuthorUsername())
+                .profileUrl("/user/" + post.getAuthorUsername())
                 .build())
-        .likesCount(post.getLikes().size())
+        .likesCount(post.getLikesCount() + (int) postCounterService.pendingLikes(post.getId()))
         .commentsCount(post.getCommentsCount())
-        .shareCount(post.getShareCount())
-        .isLiked(post.getLikes().contains(currentUser))
+        .shareCount(post.getShareCount() + (int) postCounterService.pendingShares(post.getId()))
+        .isLiked(isLiked)
         .build();
   }
+
+  // A miss that reloads the row before the commit would otherwise cache the old counts
+  private void invalidateAfterCommit(Long postId) {
+    afterCommit(() -> postViewCache.invalidate(postId));
+  }
+
+  private static void afterCommit(Runnable action) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              action.run();
+            }
+          });
+    } else {
+      action.run();
+    }
+  }
+
+  // One-time migration for databases that predate likes_count; it rewrites the whole
+  // posts table, so it only runs when app.posts.backfill-likes-count is switched on
+  @EventListener(ApplicationReadyEvent.class)
+  @Transactional
+  public void backfillLikesCount() {
+    if (!backfillLikesCount) {
+      return;
+    }
+    int updated = postRepository.backfillLikesCount();
+    logger.info(
+        "Backfilled likes_count for {} posts; app.posts.backfill-likes-count can be turned off",
+        updated);
+  }
 }
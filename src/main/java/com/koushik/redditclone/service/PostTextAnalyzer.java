@@ -0,0 +1,157 @@
+package com.koushik.redditclone.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Single-pass scanner for post and comment text. Finds hashtags, @mentions and
+ * http(s) links with their character offsets without regular expressions, treating
+ * any Unicode letter, digit, combining mark or underscore as a word character.
+ * Stateless and thread-safe.
+ */
+public final class PostTextAnalyzer {
+
+    private static final int MAX_MENTION_LENGTH = 50;
+
+    private PostTextAnalyzer() {
+    }
+
+    public enum EntityType { HASHTAG, MENTION, URL }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Entity {
+        private final EntityType type;
+        private final String value;  // normalized: "#tag" lower-cased, "username", or the URL as written
+        private final int start;
+        private final int end;       // exclusive
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Analysis {
+        private final List<Entity> entities;
+
+        // Distinct normalized hashtags in order of first appearance
+        public List<String> hashtags() {
+            return distinct(EntityType.HASHTAG);
+        }
+
+        public List<String> mentions() {
+            return distinct(EntityType.MENTION);
+        }
+
+        public List<String> urls() {
+            return distinct(EntityType.URL);
+        }
+
+        private List<String> distinct(EntityType type) {
+            Set<String> values = new LinkedHashSet<>();
+            for (Entity entity : entities) {
+                if (entity.getType() == type) {
+                    values.add(entity.getValue());
+                }
+            }
+            return new ArrayList<>(values);
+        }
+    }
+
+    public static Analysis analyze(String text) {
+        List<Entity> entities = new ArrayList<>();
+        if (text == null) {
+            return new Analysis(entities);
+        }
+
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            char c = text.charAt(i);
+            boolean atBoundary = i == 0 || !isWordChar(text.codePointBefore(i));
+
+            if (atBoundary && (c == '#' || c == '@')) {
+                int end = scanWord(text, i + 1, c == '@' ? MAX_MENTION_LENGTH : Integer.MAX_VALUE);
+                if (end > i + 1) {
+                    String word = text.substring(i + 1, end);
+                    if (c == '#') {
+                        entities.add(new Entity(EntityType.HASHTAG, normalizeHashtag(word), i, end));
+                    } else {
+                        entities.add(new Entity(EntityType.MENTION, word, i, end));
+                    }
+                    i = end;
+                    continue;
+                }
+            } else if (atBoundary && (c == 'h' || c == 'H')) {
+                int schemeEnd = schemeEnd(text, i);
+                if (schemeEnd > 0) {
+                    int end = scanUrl(text, schemeEnd);
+                    if (end > schemeEnd) {
+                        entities.add(new Entity(EntityType.URL, text.substring(i, end), i, end));
+                        i = end;
+                        continue;
+                    }
+                }
+            }
+            i++;
+        }
+        return new Analysis(entities);
+    }
+
+    /**
+     * Canonical stored form of a hashtag: a leading '#' followed by the lower-cased tag.
+     */
+    public static String normalizeHashtag(String hashtag) {
+        String tag = hashtag.startsWith("#") ? hashtag.substring(1) : hashtag;
+        return "#" + tag.toLowerCase(Locale.ROOT);
+    }
+
+    private static int scanWord(String text, int from, int maxLength) {
+        int i = from;
+        while (i < text.length() && i - from < maxLength) {
+            int cp = text.codePointAt(i);
+            if (!isWordChar(cp)) {
+                break;
+            }
+            i += Character.charCount(cp);
+        }
+        return i;
+    }
+
+    // Returns the index just past "http://" or "https://" at position i, or -1
+    private static int schemeEnd(String text, int i) {
+        if (text.regionMatches(true, i, "https://", 0, 8)) {
+            return i + 8;
+        }
+        if (text.regionMatches(true, i, "http://", 0, 7)) {
+            return i + 7;
+        }
+        return -1;
+    }
+
+    private static int scanUrl(String text, int from) {
+        int end = from;
+        while (end < text.length() && !Character.isWhitespace(text.charAt(end))) {
+            end++;
+        }
+        // Sentence punctuation directly after a link is not part of it
+        while (end > from && ".,;:!?)]}'\"".indexOf(text.charAt(end - 1)) >= 0) {
+            end--;
+        }
+        return end;
+    }
+
+    private static boolean isWordChar(int cp) {
+        if (cp == '_' || Character.isLetterOrDigit(cp)) {
+            return true;
+        }
+        int type = Character.getType(cp);
+        return type == Character.NON_SPACING_MARK
+                || type == Character.COMBINING_SPACING_MARK
+                || type == Character.ENCLOSING_MARK;
+    }
+}
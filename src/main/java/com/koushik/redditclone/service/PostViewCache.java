@@ -0,0 +1,359 @@
+package com.koushik.redditclone.service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongConsumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.koushik.redditclone.dto.PostView;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Size- and weight-bounded cache of viewer-independent post views with W-TinyLFU
+ * eviction: new entries enter a small LRU window, and a window victim only displaces
+ * the main region's victim when the frequency sketch says it is requested more often.
+ * The main region is a segmented LRU (probation/protected) so one-hit wonders cannot
+ * flush posts that are read over and over.
+ *
+ * <p>Reads do not lock: a hit is a concurrent map lookup, and the access is appended to
+ * a striped buffer that is replayed into the sketch and the LRU order under the lock in
+ * batches. A full buffer drops accesses, which only blurs the frequency and recency
+ * information. The lock is held for writes, admission and eviction.
+ *
+ * <p>Loads race with invalidations, so callers take a {@link #stamp} before querying
+ * the database and pass it to {@link #put}; a put is dropped if the key was
+ * invalidated in between.
+ */
+@Service
+@RequiredArgsConstructor
+public class PostViewCache {
+
+    private static final int ENTRY_OVERHEAD = 128;
+    private static final int STAMP_STRIPES = 256;
+    private static final int READ_BUFFER_STRIPES = 16;
+    private static final int READ_BUFFER_SIZE = 64;
+    private static final int DRAIN_THRESHOLD = READ_BUFFER_SIZE / 2;
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.cache.post-views.max-entries:50000}")
+    private int maxEntries;
+
+    @Value("${app.cache.post-views.max-weight:67108864}")
+    private long maxWeight;
+
+    private final Map<Long, Node> nodes = new ConcurrentHashMap<>();
+    private final LinkedHashMap<Long, Node> window = new LinkedHashMap<>();
+    private final LinkedHashMap<Long, Node> probation = new LinkedHashMap<>();
+    private final LinkedHashMap<Long, Node> protectedSegment = new LinkedHashMap<>();
+    private final AtomicLongArray stamps = new AtomicLongArray(STAMP_STRIPES);
+    private final ReadBuffer[] readBuffers = new ReadBuffer[READ_BUFFER_STRIPES];
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private FrequencySketch sketch;
+    private long windowWeight;
+    private long probationWeight;
+    private long protectedWeight;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        sketch = new FrequencySketch(maxEntries);
+        for (int i = 0; i < readBuffers.length; i++) {
+            readBuffers[i] = new ReadBuffer();
+        }
+
+        FunctionCounter.builder("cache.gets", hits, LongAdder::sum)
+                .tag("cache", "postViews").tag("result", "hit").register(meterRegistry);
+        FunctionCounter.builder("cache.gets", misses, LongAdder::sum)
+                .tag("cache", "postViews").tag("result", "miss").register(meterRegistry);
+        FunctionCounter.builder("cache.evictions", evictions, LongAdder::sum)
+                .tag("cache", "postViews").register(meterRegistry);
+        Gauge.builder("cache.size", this, PostViewCache::size)
+                .tag("cache", "postViews").register(meterRegistry);
+        Gauge.builder("cache.weight", this, PostViewCache::weight)
+                .tag("cache", "postViews").baseUnit("bytes").register(meterRegistry);
+    }
+
+    public PostView get(long postId) {
+        Node node = nodes.get(postId);
+        if (node == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        recordRead(postId);
+        return node != null ? node.view : null;
+    }
+
+    public long stamp(long postId) {
+        return stamps.get(stripe(postId));
+    }
+
+    public void put(PostView view, long stamp) {
+        long postId = view.getId();
+        lock.lock();
+        try {
+            if (stamps.get(stripe(postId)) != stamp) {
+                return;
+            }
+            // Replays the miss that led to this load, so the candidate's frequency counts
+            drainReadBuffers();
+            remove(postId);
+
+            Node node = new Node(view, weigh(view));
+            nodes.put(postId, node);
+            window.put(postId, node);
+            windowWeight += node.weight;
+            evict();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidate(long postId) {
+        stamps.incrementAndGet(stripe(postId));
+        lock.lock();
+        try {
+            remove(postId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+
+    public long weight() {
+        lock.lock();
+        try {
+            return totalWeight();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long totalWeight() {
+        return windowWeight + probationWeight + protectedWeight;
+    }
+
+    // A reader never waits for the lock; if it is busy, the next reader or write drains
+    private void recordRead(long postId) {
+        ReadBuffer buffer = readBuffers[(int) Thread.currentThread().threadId() & (READ_BUFFER_STRIPES - 1)];
+        if (buffer.offer(postId) >= DRAIN_THRESHOLD && lock.tryLock()) {
+            try {
+                drainReadBuffers();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void drainReadBuffers() {
+        for (ReadBuffer buffer : readBuffers) {
+            buffer.drainTo(this::onRead);
+        }
+    }
+
+    private void onRead(long postId) {
+        sketch.increment(postId);
+        Node node = nodes.get(postId);
+        if (node != null) {
+            onHit(node);
+        }
+    }
+
+    private void onHit(Node node) {
+        long postId = node.view.getId();
+        switch (node.segment) {
+            case WINDOW -> {
+                window.remove(postId);
+                window.put(postId, node);
+            }
+            case PROBATION -> {
+                probation.remove(postId);
+                probationWeight -= node.weight;
+                node.segment = Segment.PROTECTED;
+                protectedSegment.put(postId, node);
+                protectedWeight += node.weight;
+                demoteProtectedOverflow();
+            }
+            case PROTECTED -> {
+                protectedSegment.remove(postId);
+                protectedSegment.put(postId, node);
+            }
+        }
+    }
+
+    private void evict() {
+        long windowLimit = Math.max(1, maxWeight / 100);
+        int windowEntryLimit = Math.max(1, maxEntries / 100);
+        while (!window.isEmpty() && (windowWeight > windowLimit || window.size() > windowEntryLimit)) {
+            Node candidate = removeEldest(window);
+            windowWeight -= candidate.weight;
+            candidate.segment = Segment.PROBATION;
+            probation.put(candidate.view.getId(), candidate);
+            probationWeight += candidate.weight;
+            evictFromMain(candidate);
+        }
+    }
+
+    // TinyLFU admission: the newly arrived candidate competes with the main region's victim
+    private void evictFromMain(Node candidate) {
+        while (nodes.size() > maxEntries || totalWeight() > maxWeight) {
+            Node victim = !probation.isEmpty() ? eldest(probation)
+                    : !protectedSegment.isEmpty() ? eldest(protectedSegment) : null;
+            if (victim == null) {
+                return;
+            }
+            Node loser = victim;
+            if (candidate != null && victim != candidate
+                    && sketch.frequency(candidate.view.getId()) <= sketch.frequency(victim.view.getId())) {
+                loser = candidate;
+            }
+            if (loser == candidate) {
+                candidate = null;
+            }
+            remove(loser.view.getId());
+            evictions.increment();
+        }
+    }
+
+    private void demoteProtectedOverflow() {
+        long protectedLimit = maxWeight * 8 / 10;
+        while (protectedWeight > protectedLimit && protectedSegment.size() > 1) {
+            Node demoted = removeEldest(protectedSegment);
+            protectedWeight -= demoted.weight;
+            demoted.segment = Segment.PROBATION;
+            probation.put(demoted.view.getId(), demoted);
+            probationWeight += demoted.weight;
+        }
+    }
+
+    private void remove(long postId) {
+        Node node = nodes.remove(postId);
+        if (node == null) {
+            return;
+        }
+        switch (node.segment) {
+            case WINDOW -> {
+                window.remove(postId);
+                windowWeight -= node.weight;
+            }
+            case PROBATION -> {
+                probation.remove(postId);
+                probationWeight -= node.weight;
+            }
+            case PROTECTED -> {
+                protectedSegment.remove(postId);
+                protectedWeight -= node.weight;
+            }
+        }
+    }
+
+    private static Node eldest(LinkedHashMap<Long, Node> segment) {
+        return segment.values().iterator().next();
+    }
+
+    private static Node removeEldest(LinkedHashMap<Long, Node> segment) {
+        Iterator<Node> iterator = segment.values().iterator();
+        Node eldest = iterator.next();
+        iterator.remove();
+        return eldest;
+    }
+
+    private static int weigh(PostView view) {
+        int weight = ENTRY_OVERHEAD + 2 * view.getContent().length();
+        if (view.getAuthorUsername() != null) {
+            weight += 2 * view.getAuthorUsername().length();
+        }
+        if (view.getImageName() != null) {
+            weight += 2 * view.getImageName().length();
+        }
+        return weight;
+    }
+
+    private static int stripe(long postId) {
+        return (int) (postId ^ (postId >>> 32)) & (STAMP_STRIPES - 1);
+    }
+
+    private enum Segment { WINDOW, PROBATION, PROTECTED }
+
+    // Bounded multi-producer buffer of read post ids, drained by one thread at a time
+    // under the lock. A slot claimed but not yet written stops the drain at that point.
+    private static final class ReadBuffer {
+        private static final long EMPTY = Long.MIN_VALUE;
+
+        private final AtomicLongArray slots = new AtomicLongArray(READ_BUFFER_SIZE);
+        private final AtomicLong writes = new AtomicLong();
+        private volatile long reads;
+
+        private ReadBuffer() {
+            for (int i = 0; i < READ_BUFFER_SIZE; i++) {
+                slots.set(i, EMPTY);
+            }
+        }
+
+        // Returns how many reads are waiting, counting this one unless it was dropped
+        private int offer(long postId) {
+            long tail = writes.get();
+            long pending = tail - reads;
+            if (pending >= READ_BUFFER_SIZE) {
+                return READ_BUFFER_SIZE;
+            }
+            if (writes.compareAndSet(tail, tail + 1)) {
+                slots.setRelease(index(tail), postId);
+                pending++;
+            }
+            return (int) pending;
+        }
+
+        private void drainTo(LongConsumer consumer) {
+            long head = reads;
+            long tail = writes.get();
+            while (head < tail) {
+                int index = index(head);
+                long postId = slots.getAcquire(index);
+                if (postId == EMPTY) {
+                    break;
+                }
+                slots.setRelease(index, EMPTY);
+                consumer.accept(postId);
+                head++;
+            }
+            reads = head;
+        }
+
+        private static int index(long position) {
+            return (int) (position & (READ_BUFFER_SIZE - 1));
+        }
+    }
+
+    private static final class Node {
+        private final PostView view;
+        private final int weight;
+        private Segment segment = Segment.WINDOW;
+
+        private Node(PostView view, int weight) {
+            this.view = view;
+            this.weight = weight;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.koushik.redditclone.service;
+
+import java.util.Arrays;
+
+/**
+ * Growable sorted array of post ids. Ids arrive almost always in ascending order, so
+ * appends are O(1) amortized; pages are read newest-first from a binary-searched start.
+ */
+class PostingList {
+
+    private long[] ids = new long[4];
+    private int size;
+
+    synchronized void add(long postId) {
+        int pos = Arrays.binarySearch(ids, 0, size, postId);
+        if (pos >= 0) {
+            return;
+        }
+        int insertAt = -pos - 1;
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+        }
+        System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+        ids[insertAt] = postId;
+        size++;
+    }
+
+    synchronized void remove(long postId) {
+        int pos = Arrays.binarySearch(ids, 0, size, postId);
+        if (pos < 0) {
+            return;
+        }
+        System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+        size--;
+    }
+
+    /**
+     * Up to {@code limit} ids strictly below {@code beforeId}, newest first.
+     */
+    synchronized long[] newestBefore(long beforeId, int limit) {
+        int pos = Arrays.binarySearch(ids, 0, size, beforeId);
+        int end = pos >= 0 ? pos : -pos - 1;
+        return newestFrom(end, limit);
+    }
+
+    /**
+     * Up to {@code limit} ids after skipping the {@code offset} newest, newest first.
+     */
+    synchronized long[] newestAfterOffset(int offset, int limit) {
+        return newestFrom(Math.max(0, size - offset), limit);
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    private long[] newestFrom(int end, int limit) {
+        int count = Math.max(0, Math.min(limit, end));
+        long[] page = new long[count];
+        for (int i = 0; i < count; i++) {
+            page[i] = ids[end - 1 - i];
+        }
+        return page;
+    }
+}
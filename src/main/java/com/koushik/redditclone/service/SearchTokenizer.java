@@ -0,0 +1,121 @@
+package com.koushik.redditclone.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Turns post text and search queries into index terms: runs of Unicode letters and
+ * digits, lower-cased, with a few English stop words dropped and a light suffix
+ * stemmer applied to Latin words so "posts", "posted" and "posting" share one term.
+ */
+final class SearchTokenizer {
+
+    private static final int MAX_TERM_LENGTH = 40;
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "but", "by", "for", "if", "in", "into",
+            "is", "it", "of", "on", "or", "so", "that", "the", "their", "then", "there",
+            "these", "they", "this", "to", "was", "will", "with");
+
+    private SearchTokenizer() {
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            int cp = text.codePointAt(i);
+            if (!isTermChar(cp)) {
+                i += Character.charCount(cp);
+                continue;
+            }
+            int start = i;
+            while (i < length && isTermChar(cp = text.codePointAt(i))) {
+                i += Character.charCount(cp);
+            }
+            if (i - start <= MAX_TERM_LENGTH) {
+                String word = text.substring(start, i).toLowerCase(Locale.ROOT);
+                if (!STOP_WORDS.contains(word)) {
+                    terms.add(stem(word));
+                }
+            }
+        }
+        return terms;
+    }
+
+    static String stem(String word) {
+        if (!isAsciiLetters(word) || word.length() <= 3) {
+            return word;
+        }
+        String stem = stripSuffix(word);
+        // "cache"/"caches"/"cached" and "like"/"liked" meet at the same stem
+        return stem.length() > 3 && stem.endsWith("e") ? stem.substring(0, stem.length() - 1) : stem;
+    }
+
+    private static String stripSuffix(String word) {
+        if (word.endsWith("ies") && !word.endsWith("eies") && !word.endsWith("aies")) {
+            return word.substring(0, word.length() - 3) + "y";
+        }
+        if (word.endsWith("ing") && word.length() >= 6 && hasVowel(word, word.length() - 3)) {
+            return undouble(word.substring(0, word.length() - 3));
+        }
+        if (word.endsWith("ed") && word.length() >= 5 && hasVowel(word, word.length() - 2)) {
+            return undouble(word.substring(0, word.length() - 2));
+        }
+        if (word.endsWith("es") && (word.endsWith("ches") || word.endsWith("shes")
+                || word.endsWith("sses") || word.endsWith("xes") || word.endsWith("zes"))) {
+            return word.substring(0, word.length() - 2);
+        }
+        if (word.endsWith("s") && !word.endsWith("ss") && !word.endsWith("us") && !word.endsWith("is")) {
+            return word.substring(0, word.length() - 1);
+        }
+        return word;
+    }
+
+    // "running" -> "runn" -> "run", but "falling" keeps "fall"
+    private static String undouble(String stem) {
+        int n = stem.length();
+        if (n >= 3 && stem.charAt(n - 1) == stem.charAt(n - 2) && "lsz".indexOf(stem.charAt(n - 1)) < 0
+                && !isVowel(stem.charAt(n - 1))) {
+            return stem.substring(0, n - 1);
+        }
+        return stem;
+    }
+
+    private static boolean hasVowel(String word, int end) {
+        for (int i = 0; i < end; i++) {
+            if (isVowel(word.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isVowel(char c) {
+        return c == 'a' || c == 'e' || c == 'i' || c == 'o' || c == 'u' || c == 'y';
+    }
+
+    private static boolean isAsciiLetters(String word) {
+        for (int i = 0; i < word.length(); i++) {
+            char c = word.charAt(i);
+            if (c < 'a' || c > 'z') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isTermChar(int cp) {
+        if (Character.isLetterOrDigit(cp)) {
+            return true;
+        }
+        int type = Character.getType(cp);
+        return type == Character.NON_SPACING_MARK || type == Character.COMBINING_SPACING_MARK;
+    }
+}
@@ -0,0 +1,152 @@
+package com.koushik.redditclone.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving top-k summary with a fixed number of counters kept in an indexed
+ * min-heap. An unmonitored key takes over the smallest counter and inherits its count
+ * as error, so counts are overestimated by at most N / capacity and every key with a
+ * true count above N / capacity is guaranteed to be monitored.
+ */
+class SpaceSaving<T> {
+
+    private final int capacity;
+    private final Map<String, Counter<T>> counters = new HashMap<>();
+    private final Counter<T>[] heap;
+    private int size;
+
+    SpaceSaving(int capacity) {
+        this.capacity = capacity;
+        @SuppressWarnings("unchecked")
+        Counter<T>[] heap = (Counter<T>[]) new Counter<?>[capacity];
+        this.heap = heap;
+    }
+
+    /**
+     * Adds {@code delta} to the key's counter, evicting the smallest counter if the key
+     * is not monitored yet. Returns the key's counter; {@link Counter#isNew} tells
+     * whether it was (re)assigned by this call.
+     */
+    Counter<T> offer(String key, long delta) {
+        Counter<T> counter = counters.get(key);
+        if (counter != null) {
+            counter.isNew = false;
+            counter.count += delta;
+            siftDown(counter.index);
+            return counter;
+        }
+
+        if (size < capacity) {
+            counter = new Counter<>(key);
+            counter.index = size;
+            heap[size++] = counter;
+        } else {
+            counter = heap[0];
+            counters.remove(counter.key);
+            counter.key = key;
+            counter.error = counter.count;
+        }
+        counter.isNew = true;
+        counter.count += delta;
+        counters.put(key, counter);
+        siftDown(counter.index);
+        return counter;
+    }
+
+    /**
+     * Takes {@code delta} back from a monitored key; unmonitored keys are ignored.
+     */
+    void decrement(String key, long delta) {
+        Counter<T> counter = counters.get(key);
+        if (counter != null) {
+            counter.count = Math.max(counter.count - delta, 0);
+            counter.error = Math.min(counter.error, counter.count);
+            siftUp(counter.index);
+        }
+    }
+
+    // Halving every counter keeps their relative order, so the heap stays valid
+    void halve() {
+        for (int i = 0; i < size; i++) {
+            heap[i].count >>= 1;
+            heap[i].error >>= 1;
+        }
+    }
+
+    List<Counter<T>> counters() {
+        List<Counter<T>> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(heap[i]);
+        }
+        return result;
+    }
+
+    private void siftUp(int i) {
+        Counter<T> counter = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[parent].count <= counter.count) {
+                break;
+            }
+            place(heap[parent], i);
+            i = parent;
+        }
+        place(counter, i);
+    }
+
+    private void siftDown(int i) {
+        Counter<T> counter = heap[i];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && heap[child + 1].count < heap[child].count) {
+                child++;
+            }
+            if (counter.count <= heap[child].count) {
+                break;
+            }
+            place(heap[child], i);
+            i = child;
+        }
+        place(counter, i);
+    }
+
+    private void place(Counter<T> counter, int i) {
+        heap[i] = counter;
+        counter.index = i;
+    }
+
+    static final class Counter<T> {
+        private String key;
+        private long count;
+        private long error;
+        private int index;
+        private boolean isNew;
+
+        // Per-key payload owned by the caller, reset by it when the counter is reassigned
+        T attachment;
+
+        private Counter(String key) {
+            this.key = key;
+        }
+
+        String key() {
+            return key;
+        }
+
+        long count() {
+            return count;
+        }
+
+        long error() {
+            return error;
+        }
+
+        boolean isNew() {
+            return isNew;
+        }
+    }
+}
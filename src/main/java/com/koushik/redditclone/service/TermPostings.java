@@ -0,0 +1,111 @@
+package com.koushik.redditclone.service;
+
+import java.util.Arrays;
+
+/**
+ * Compressed posting list for one search term: (post id delta, term frequency) pairs
+ * encoded as unsigned varints in ascending id order, so postings of common terms cost
+ * about two bytes each. Not thread-safe; PostSearchIndex
+ * guards it with a read-write lock.
+ */
+class TermPostings {
+
+    private byte[] bytes = new byte[8];
+    private int length;
+    private int size;
+    private long lastId;
+
+    int size() {
+        return size;
+    }
+
+    void add(long postId, int frequency) {
+        if (size > 0 && postId <= lastId) {
+            insertOutOfOrder(postId, frequency);
+            return;
+        }
+        writeVarint(postId - lastId);
+        writeVarint(frequency);
+        lastId = postId;
+        size++;
+    }
+
+    /**
+     * Appends another list whose ids are all greater than this one's.
+     */
+    void addAll(TermPostings other) {
+        Cursor cursor = other.cursor();
+        while (cursor.next()) {
+            add(cursor.postId, cursor.frequency);
+        }
+    }
+
+    Cursor cursor() {
+        return new Cursor(bytes, length);
+    }
+
+    // Rare: concurrent creates can reach the index out of id order
+    private void insertOutOfOrder(long postId, int frequency) {
+        Cursor cursor = cursor();
+        TermPostings rebuilt = new TermPostings();
+        boolean inserted = false;
+        while (cursor.next()) {
+            if (!inserted && postId <= cursor.postId) {
+                if (postId < cursor.postId) {
+                    rebuilt.add(postId, frequency);
+                }
+                inserted = true;
+            }
+            rebuilt.add(cursor.postId, cursor.frequency);
+        }
+        bytes = rebuilt.bytes;
+        length = rebuilt.length;
+        size = rebuilt.size;
+        lastId = rebuilt.lastId;
+    }
+
+    private void writeVarint(long value) {
+        if (length + 10 > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + 10));
+        }
+        while ((value & ~0x7FL) != 0) {
+            bytes[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        bytes[length++] = (byte) value;
+    }
+
+    static final class Cursor {
+        private final byte[] bytes;
+        private final int length;
+        private int position;
+        long postId;
+        int frequency;
+
+        private Cursor(byte[] bytes, int length) {
+            this.bytes = bytes;
+            this.length = length;
+        }
+
+        boolean next() {
+            if (position >= length) {
+                return false;
+            }
+            postId += readVarint();
+            frequency = (int) readVarint();
+            return true;
+        }
+
+        private long readVarint() {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = bytes[position++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.koushik.redditclone.service;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-capacity ring of (postId, authorId) pairs kept in ascending post id order.
+ * Post ids are identity-generated, so id order is creation order; once full, the
+ * oldest entry is overwritten. Backed by primitive arrays to keep each home
+ * timeline at a few KB regardless of how many posts it has seen.
+ */
+class TimelineRing {
+
+    private final long[] postIds;
+    private final long[] authorIds;
+    private int start;
+    private int size;
+
+    TimelineRing(int capacity) {
+        this.postIds = new long[capacity];
+        this.authorIds = new long[capacity];
+    }
+
+    synchronized void add(long postId, long authorId) {
+        int capacity = postIds.length;
+        // Walk back from the newest entry; new posts almost always land at the end
+        int pos = size;
+        while (pos > 0 && postIds[slot(pos - 1)] > postId) {
+            pos--;
+        }
+        if (pos > 0 && postIds[slot(pos - 1)] == postId) {
+            return;
+        }
+        if (size == capacity) {
+            if (pos == 0) {
+                return; // older than everything we keep
+            }
+            start = (start + 1) % capacity;
+            size--;
+            pos--;
+        }
+        for (int i = size; i > pos; i--) {
+            postIds[slot(i)] = postIds[slot(i - 1)];
+            authorIds[slot(i)] = authorIds[slot(i - 1)];
+        }
+        postIds[slot(pos)] = postId;
+        authorIds[slot(pos)] = authorId;
+        size++;
+    }
+
+    synchronized void removeAuthor(long authorId) {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            int from = slot(i);
+            if (authorIds[from] != authorId) {
+                int to = slot(kept++);
+                postIds[to] = postIds[from];
+                authorIds[to] = authorIds[from];
+            }
+        }
+        size = kept;
+    }
+
+    /**
+     * Returns up to {@code limit} post ids strictly below {@code beforeId}, newest first.
+     */
+    synchronized long[] newestBefore(long beforeId, int limit) {
+        long[] result = new long[Math.min(limit, size)];
+        int count = 0;
+        for (int i = size - 1; i >= 0 && count < result.length; i--) {
+            long postId = postIds[slot(i)];
+            if (postId < beforeId) {
+                result[count++] = postId;
+            }
+        }
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    private int slot(int index) {
+        return (start + index) % postIds.length;
+    }
+}
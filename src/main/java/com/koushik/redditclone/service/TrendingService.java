@@ -1,68 +1,327 @@
 package com.koushik.redditclone.service;
 
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.PriorityQueue;
 
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
 import com.koushik.redditclone.model.Post;
 import com.koushik.redditclone.repository.PostRepository;
 
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 
+/**
+ * Streaming trending hashtags over a sliding 24h window. Each created or deleted post
+ * updates a ring of per-minute buckets, and per-tag running totals let the linearly
+ * decaying score (1.0 for a post made now, 0.0 for one 24h old) be evaluated without
+ * revisiting the buckets. A new top list is published every few seconds as an
+ * immutable snapshot, so readers never see a partially rebuilt ranking.
+ *
+ * <p>The same stream also feeds a fixed-memory {@link HashtagSketch} whose memory does
+ * not grow with the number of distinct tags and which discounts tags pushed by few
+ * authors. With {@code app.trending.mode=exact} both rankings are kept and either can
+ * be requested; with {@code sketch} only the sketch is maintained, so memory stays
+ * bounded, and the exact ranking is not available.
+ */
 @Service
 @EnableScheduling
 @RequiredArgsConstructor
 public class TrendingService {
-    
+    private static final Logger logger = LoggerFactory.getLogger(TrendingService.class);
+
+    static final int WINDOW_MINUTES = 24 * 60;
+    private static final int TOP_HASHTAGS = 10;
+
+    public enum Mode { EXACT, SKETCH }
+
     private final PostRepository postRepository;
-    private final Map<String, Double> trendingHashtags = new ConcurrentHashMap<>();
-    
-    @Scheduled(fixedRate = 3600000) // Run every hour
-    @Transactional(readOnly = true)
-    public void calculateTrends() {
-        LocalDateTime twentyFourHoursAgo = LocalDateTime.now().minus(24, ChronoUnit.HOURS);
-        PageRequest pageRequest = PageRequest.of(0, 100, Sort.by("timestamp").descending());
-        Page<Post> postPage;
-        Map<String, Double> hashtagScores = new HashMap<>();
-        
-        do {
-            postPage = postRepository.findByTimestampAfter(twentyFourHoursAgo, pageRequest);
-            for (Post post : postPage.getContent()) {
-                // Calculate time-based weight (1.0 for newest posts, decreasing to 0.0 for 24h old posts)
-                double hoursAgo = ChronoUnit.HOURS.between(post.getTimestamp(), LocalDateTime.now());
-                double timeWeight = Math.max(0.0, 1.0 - (hoursAgo / 24.0));
-                
-                for (String hashtag : post.getHashtags()) {
-                    hashtagScores.merge(hashtag, timeWeight, Double::sum);
-                }
+
+    @Value("${app.trending.mode:exact}")
+    private String defaultMode;
+
+    @Value("${app.trending.sketch.top-k:500}")
+    private int sketchTopK;
+
+    @Value("${app.trending.sketch.epsilon:0.0005}")
+    private double sketchEpsilon;
+
+    @Value("${app.trending.sketch.confidence:0.999}")
+    private double sketchConfidence;
+
+    @Value("${app.trending.sketch.hll-precision:10}")
+    private int sketchHllPrecision;
+
+    @Value("${app.trending.sketch.max-posts-per-author:3}")
+    private int sketchMaxPostsPerAuthor;
+
+    private Mode mode;
+    private HashtagSketch sketch;
+
+    @SuppressWarnings("unchecked")
+    private final Map<String, Integer>[] buckets = (Map<String, Integer>[]) new HashMap<?, ?>[WINDOW_MINUTES];
+    private final long[] bucketMinutes = new long[WINDOW_MINUTES];
+    private final Map<String, Totals> totals = new HashMap<>();
+
+    private volatile List<String> trendingHashtags = List.of();
+    private volatile List<String> sketchHashtags = List.of();
+
+    // Set when the window was restored from a snapshot; only newer posts are replayed at seed
+    private volatile LocalDateTime restoredAt;
+
+    @PostConstruct
+    public void init() {
+        mode = parseMode(defaultMode);
+        sketch = new HashtagSketch(sketchTopK, sketchEpsilon, sketchConfidence,
+                sketchHllPrecision, sketchMaxPostsPerAuthor);
+        logger.info("Trending sketch uses about {} KB", sketch.memoryBytes() / 1024);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        LocalDateTime since = LocalDateTime.now().minus(WINDOW_MINUTES, ChronoUnit.MINUTES);
+        for (Object[] row : postRepository.findHashtagsSince(since)) {
+            LocalDateTime timestamp = (LocalDateTime) row[0];
+            long minute = epochMinute(timestamp);
+            String tag = PostTextAnalyzer.normalizeHashtag((String) row[2]);
+            boolean inWindow = mode == Mode.SKETCH || (restoredAt != null && !timestamp.isAfter(restoredAt))
+                    ? inWindow(minute)
+                    : record(minute, List.of(tag), 1);
+            if (inWindow) {
+                sketch.add(tag, (Long) row[1]);
             }
-            pageRequest = pageRequest.next();
-        } while (postPage.hasNext());
-
-        // Sort hashtags by score and keep top 10
-        List<Map.Entry<String, Double>> sortedHashtags = new ArrayList<>(hashtagScores.entrySet());
-        sortedHashtags.sort(Map.Entry.<String, Double>comparingByValue().reversed());
-        
-        // Update trending hashtags
-        trendingHashtags.clear();
-        sortedHashtags.stream()
-            .limit(10)
-            .forEach(entry -> trendingHashtags.put(entry.getKey(), entry.getValue()));
-    }
-    
+        }
+        publish();
+    }
+
+    public void onPostCreated(Post post) {
+        List<String> tags = normalize(post.getHashtags());
+        if (apply(epochMinute(post.getTimestamp()), tags, 1)) {
+            tags.forEach(tag -> sketch.add(tag, post.getUser().getId()));
+        }
+    }
+
+    public void onPostDeleted(Post post) {
+        List<String> tags = normalize(post.getHashtags());
+        if (apply(epochMinute(post.getTimestamp()), tags, -1)) {
+            tags.forEach(sketch::remove);
+        }
+    }
+
+    // In sketch mode the exact window is never filled; only the window bounds apply
+    private boolean apply(long minute, List<String> tags, int delta) {
+        return mode == Mode.SKETCH ? !tags.isEmpty() && inWindow(minute) : record(minute, tags, delta);
+    }
+
+    @Scheduled(fixedRateString = "${app.trending.publish-interval-ms:5000}")
+    public void publish() {
+        List<Map.Entry<String, Double>> scores = scores();
+        PriorityQueue<Map.Entry<String, Double>> top =
+                new PriorityQueue<>(Map.Entry.comparingByValue());
+        for (Map.Entry<String, Double> entry : scores) {
+            top.offer(entry);
+            if (top.size() > TOP_HASHTAGS) {
+                top.poll();
+            }
+        }
+
+        List<Map.Entry<String, Double>> ranked = new ArrayList<>(top);
+        ranked.sort(Map.Entry.<String, Double>comparingByValue(Comparator.reverseOrder()));
+        trendingHashtags = ranked.stream().map(Map.Entry::getKey).toList();
+        sketchHashtags = sketch.top(TOP_HASHTAGS);
+    }
+
+    @Scheduled(initialDelayString = "${app.trending.sketch.decay-interval-ms:21600000}",
+            fixedRateString = "${app.trending.sketch.decay-interval-ms:21600000}")
+    public void decaySketch() {
+        sketch.decay();
+    }
+
     public List<String> getTrendingHashtags() {
-        return new ArrayList<>(trendingHashtags.keySet());
+        return getTrendingHashtags(null);
+    }
+
+    public List<String> getTrendingHashtags(String requested) {
+        Mode ranking = requested != null ? parseMode(requested) : mode;
+        if (ranking == Mode.EXACT && mode == Mode.SKETCH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Exact trending is disabled (app.trending.mode=sketch)");
+        }
+        return ranking == Mode.SKETCH ? sketchHashtags : trendingHashtags;
+    }
+
+    /**
+     * Writes the exact window as (minute, tag count, (tag, count)...) bucket records.
+     */
+    public synchronized void writeSnapshot(DataOutputStream out) throws IOException {
+        long oldest = currentMinute() - WINDOW_MINUTES;
+        List<Integer> slots = new ArrayList<>();
+        for (int slot = 0; slot < WINDOW_MINUTES; slot++) {
+            if (buckets[slot] != null && bucketMinutes[slot] > oldest) {
+                slots.add(slot);
+            }
+        }
+
+        out.writeInt(slots.size());
+        for (int slot : slots) {
+            out.writeLong(bucketMinutes[slot]);
+            out.writeInt(buckets[slot].size());
+            for (Map.Entry<String, Integer> entry : buckets[slot].entrySet()) {
+                byte[] tag = entry.getKey().getBytes(StandardCharsets.UTF_8);
+                out.writeInt(tag.length);
+                out.write(tag);
+                out.writeInt(entry.getValue());
+            }
+        }
+    }
+
+    public void restoreSnapshot(ByteBuffer in, LocalDateTime writtenAt) {
+        int bucketCount = in.getInt();
+        for (int i = 0; i < bucketCount; i++) {
+            long minute = in.getLong();
+            int tagCount = in.getInt();
+            for (int j = 0; j < tagCount; j++) {
+                byte[] tag = new byte[in.getInt()];
+                in.get(tag);
+                int count = in.getInt();
+                if (mode == Mode.EXACT) {
+                    record(minute, List.of(new String(tag, StandardCharsets.UTF_8)), count);
+                }
+            }
+        }
+        // The sketch is not snapshotted, so in sketch mode seed() replays the whole window
+        if (mode == Mode.EXACT) {
+            restoredAt = writtenAt;
+        }
+        publish();
+    }
+
+    private synchronized List<Map.Entry<String, Double>> scores() {
+        long now = currentMinute();
+        expireBefore(now - WINDOW_MINUTES + 1);
+
+        List<Map.Entry<String, Double>> scores = new ArrayList<>(totals.size());
+        for (Map.Entry<String, Totals> entry : totals.entrySet()) {
+            double score = entry.getValue().score(now);
+            if (score > 0) {
+                scores.add(Map.entry(entry.getKey(), score));
+            }
+        }
+        return scores;
+    }
+
+    // Returns false if the minute is outside the window and nothing was recorded
+    private synchronized boolean record(long minute, Collection<String> tags, int delta) {
+        long now = currentMinute();
+        if (minute <= now - WINDOW_MINUTES || minute > now + 1 || tags.isEmpty()) {
+            return false;
+        }
+
+        int slot = (int) Math.floorMod(minute, (long) WINDOW_MINUTES);
+        if (bucketMinutes[slot] > minute) {
+            return false; // the bucket already moved on; this minute has left the window
+        }
+        if (bucketMinutes[slot] < minute) {
+            expireSlot(slot);
+            bucketMinutes[slot] = minute;
+        }
+        if (buckets[slot] == null) {
+            buckets[slot] = new HashMap<>();
+        }
+
+        for (String tag : tags) {
+            buckets[slot].merge(tag, delta, Integer::sum);
+            totals.computeIfAbsent(tag, t -> new Totals()).add(delta, minute);
+        }
+        return true;
+    }
+
+    private static boolean inWindow(long minute) {
+        long now = currentMinute();
+        return minute > now - WINDOW_MINUTES && minute <= now + 1;
+    }
+
+    private void expireBefore(long oldestMinute) {
+        for (int slot = 0; slot < WINDOW_MINUTES; slot++) {
+            if (buckets[slot] != null && bucketMinutes[slot] < oldestMinute) {
+                expireSlot(slot);
+            }
+        }
+    }
+
+    private void expireSlot(int slot) {
+        Map<String, Integer> bucket = buckets[slot];
+        if (bucket == null) {
+            return;
+        }
+        long minute = bucketMinutes[slot];
+        for (Map.Entry<String, Integer> entry : bucket.entrySet()) {
+            Totals tagTotals = totals.get(entry.getKey());
+            tagTotals.add(-entry.getValue(), minute);
+            if (tagTotals.count == 0) {
+                totals.remove(entry.getKey());
+            }
+        }
+        buckets[slot] = null;
+    }
+
+    private static Mode parseMode(String mode) {
+        try {
+            return Mode.valueOf(mode.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown trending mode: " + mode);
+        }
+    }
+
+    private static List<String> normalize(Collection<String> hashtags) {
+        return hashtags.stream().map(PostTextAnalyzer::normalizeHashtag).distinct().toList();
+    }
+
+    private static long currentMinute() {
+        return System.currentTimeMillis() / 60_000;
+    }
+
+    private static long epochMinute(LocalDateTime timestamp) {
+        return timestamp.atZone(ZoneId.systemDefault()).toEpochSecond() / 60;
+    }
+
+    /**
+     * Sum of counts and of count-weighted minutes for one tag. With linear decay the
+     * score at minute t is sum(c * (1 - (t - m) / W)) = count - (t * count - minuteSum) / W.
+     */
+    private static final class Totals {
+        private long count;
+        private long minuteSum;
+
+        void add(int delta, long minute) {
+            count += delta;
+            minuteSum += delta * minute;
+        }
+
+        double score(long now) {
+            return count - (double) (now * count - minuteSum) / WINDOW_MINUTES;
+        }
     }
 }
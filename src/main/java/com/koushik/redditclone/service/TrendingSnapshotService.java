@@ -0,0 +1,143 @@
+package com.koushik.redditclone.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Persists the trending window and the hot posts ranking to a local binary file so a
+ * restart serves trends immediately instead of waiting for the database rebuild.
+ *
+ * <p>Layout: magic, version, written-at millis, payload length, payload, CRC32 of the
+ * payload. A file with the wrong magic or version, a bad checksum, or older than
+ * {@code app.snapshot.max-age-minutes} is ignored and the state is recomputed from the
+ * database as on a cold start.
+ */
+@Service
+@RequiredArgsConstructor
+public class TrendingSnapshotService {
+    private static final Logger logger = LoggerFactory.getLogger(TrendingSnapshotService.class);
+
+    private static final int MAGIC = 0x54524e44; // "TRND"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 4;
+    private static final String FILE_NAME = "trending.snapshot";
+
+    private final TrendingService trendingService;
+    private final HotPostsIndex hotPostsIndex;
+
+    @Value("${app.snapshot.directory:data/snapshots}")
+    private String directory;
+
+    @Value("${app.snapshot.max-age-minutes:30}")
+    private long maxAgeMinutes;
+
+    @PostConstruct
+    public void load() {
+        Path file = Path.of(directory, FILE_NAME);
+        if (!Files.exists(file)) {
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                logger.warn("Ignoring trending snapshot {} with unknown format", file);
+                return;
+            }
+
+            long writtenAt = buffer.getLong();
+            long ageMinutes = (System.currentTimeMillis() - writtenAt) / 60_000;
+            if (ageMinutes > maxAgeMinutes) {
+                logger.info("Ignoring trending snapshot written {} minutes ago", ageMinutes);
+                return;
+            }
+
+            int length = buffer.getInt();
+            if (length < 0 || buffer.remaining() != length + 8) {
+                logger.warn("Ignoring truncated trending snapshot {}", file);
+                return;
+            }
+            ByteBuffer payload = buffer.slice(buffer.position(), length);
+            CRC32 crc = new CRC32();
+            crc.update(payload.duplicate());
+            if (crc.getValue() != buffer.getLong(buffer.position() + length)) {
+                logger.warn("Ignoring trending snapshot {} with bad checksum", file);
+                return;
+            }
+
+            trendingService.restoreSnapshot(payload,
+                    LocalDateTime.ofInstant(Instant.ofEpochMilli(writtenAt), ZoneId.systemDefault()));
+            hotPostsIndex.restoreSnapshot(payload);
+            logger.info("Restored trending snapshot written {} minutes ago", ageMinutes);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to read trending snapshot {}, recomputing", file, e);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${app.snapshot.interval-ms:60000}",
+            fixedDelayString = "${app.snapshot.interval-ms:60000}")
+    public void save() {
+        try {
+            long writtenAt = System.currentTimeMillis();
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            trendingService.writeSnapshot(out);
+            hotPostsIndex.writeSnapshot(out);
+            out.flush();
+            byte[] payload = bytes.toByteArray();
+
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + payload.length + 8)
+                    .putInt(MAGIC)
+                    .putInt(VERSION)
+                    .putLong(writtenAt)
+                    .putInt(payload.length)
+                    .put(payload)
+                    .putLong(crc.getValue())
+                    .flip();
+
+            // Written to a temp file and renamed so a crash never leaves a half-written snapshot
+            Path dir = Files.createDirectories(Path.of(directory));
+            Path temp = dir.resolve(FILE_NAME + ".tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            }
+            Files.move(temp, dir.resolve(FILE_NAME), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.error("Failed to write trending snapshot", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        save();
+    }
+}
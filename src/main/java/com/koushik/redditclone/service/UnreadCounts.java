@@ -0,0 +1,82 @@
+package com.koushik.redditclone.service;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU of per-user unread notification counts. Writers that change unread rows
+ * bracket the statement with {@link #beginWrite} and {@link #endWrite}, which applies
+ * the delta to cached counts once the rows are committed.
+ *
+ * <p>A count loaded from the database while a write for that user is in flight, or
+ * that finished after the load started, may or may not include the write; such loads
+ * are returned to the caller but not cached. Callers take a {@link #stamp} before
+ * querying and pass it to {@link #put}, like {@link PostViewCache}.
+ */
+final class UnreadCounts {
+
+    private static final int STRIPES = 256;
+
+    private final LinkedHashMap<Long, Long> counts;
+    private final long[] stamps = new long[STRIPES];
+    private final int[] writers = new int[STRIPES];
+
+    UnreadCounts(int maxEntries) {
+        this.counts = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    synchronized Long get(long userId) {
+        return counts.get(userId);
+    }
+
+    // -1 while a write is in flight: whatever the caller loads must not be cached
+    synchronized long stamp(long userId) {
+        int stripe = stripe(userId);
+        return writers[stripe] > 0 ? -1 : stamps[stripe];
+    }
+
+    synchronized void put(long userId, long count, long stamp) {
+        int stripe = stripe(userId);
+        if (stamp >= 0 && writers[stripe] == 0 && stamps[stripe] == stamp) {
+            counts.put(userId, count);
+        }
+    }
+
+    synchronized void beginWrite(Collection<Long> userIds) {
+        for (Long userId : userIds) {
+            writers[stripe(userId)]++;
+        }
+    }
+
+    // Must be called with the same users passed to beginWrite, whether or not the write succeeded
+    synchronized void endWrite(Collection<Long> userIds, Map<Long, Long> deltas) {
+        for (Long userId : userIds) {
+            int stripe = stripe(userId);
+            writers[stripe]--;
+            stamps[stripe]++;
+        }
+        deltas.forEach((userId, delta) -> counts.computeIfPresent(userId, (id, count) -> Math.max(0, count + delta)));
+    }
+
+    // For changes whose size is unknown; call after the change is committed
+    synchronized void invalidate(Collection<Long> userIds) {
+        for (Long userId : userIds) {
+            stamps[stripe(userId)]++;
+            counts.remove(userId);
+        }
+    }
+
+    synchronized int size() {
+        return counts.size();
+    }
+
+    private static int stripe(long userId) {
+        return (int) (userId ^ (userId >>> 32)) & (STRIPES - 1);
+    }
+}
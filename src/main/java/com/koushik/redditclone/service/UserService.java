@@ -1,15 +1,22 @@
 package com.koushik.redditclone.service;
 
-import java.io.IOException;
-import java.util.Optional;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
+import org.springframework.http.HttpStatus;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import com.koushik.redditclone.dto.PageResponse;
+import com.koushik.redditclone.dto.UserDTO;
 import com.koushik.redditclone.dto.UserResponse;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
 import com.koushik.redditclone.model.User;
 import com.koushik.redditclone.repository.UserRepository;
@@ -23,40 +30,76 @@ public class UserService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final NotificationService notificationService;
+    private final HomeTimelineService homeTimelineService;
+    private final FollowGraph followGraph;
+    private final AccountNameFilter accountNames;
 
-    @Transactional
     public UserResponse getUserProfile(String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        Long userId = getUserIdByUsername(username);
 
-        // Get current user from security context
+        // The authenticated principal is the current User; no lookup needed
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        boolean isFollowing = false;
-        
-        if (authentication != null && authentication.isAuthenticated()) {
-            String currentUsername = authentication.getName();
-            User currentUser = userRepository.findByUsername(currentUsername)
-                .orElse(null);
-            if (currentUser != null) {
-                isFollowing = currentUser.getFollowing().contains(user);
-            }
-        }
+        boolean isFollowing = authentication != null && authentication.isAuthenticated()
+                && authentication.getPrincipal() instanceof User currentUser
+                && followGraph.isFollowing(currentUser.getId(), userId);
 
         return UserResponse.builder()
-                .id(user.getId())
-                .username(user.getUsername())
-                .followersCount(user.getFollowers().size())
-                .followingCount(user.getFollowing().size())
+                .id(userId)
+                .username(username)
+                .followersCount(followGraph.followerCount(userId))
+                .followingCount(followGraph.followingCount(userId))
                 .isFollowing(isFollowing)
                 .build();
     }
 
+    public PageResponse<UserDTO> getFollowers(String username, String cursor, int size) {
+        long userId = getUserIdByUsername(username);
+        return toUserPage(followGraph.followersAfter(userId, parseCursor(cursor), size + 1), size);
+    }
+
+    public PageResponse<UserDTO> getFollowing(String username, String cursor, int size) {
+        long userId = getUserIdByUsername(username);
+        return toUserPage(followGraph.followingAfter(userId, parseCursor(cursor), size + 1), size);
+    }
+
+    // Listing cursors are the last user id of the previous page
+    private static long parseCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return Long.MIN_VALUE;
+        }
+        try {
+            return Long.parseLong(cursor);
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+
+    // ids holds up to size + 1 ascending user ids; the extra one only signals another page
+    private PageResponse<UserDTO> toUserPage(long[] ids, int size) {
+        boolean hasMore = ids.length > size;
+        List<Long> pageIds = Arrays.stream(ids).limit(size).boxed().toList();
+
+        Map<Long, UserDTO> found = new HashMap<>();
+        if (!pageIds.isEmpty()) {
+            userRepository.findSummariesByIdIn(pageIds).forEach(user -> found.put(user.getId(), user));
+        }
+        List<UserDTO> users = pageIds.stream().map(found::get).filter(Objects::nonNull).toList();
+
+        return PageResponse.<UserDTO>builder()
+                .data(users)
+                .total(-1)
+                .limit(size)
+                .hasMore(hasMore)
+                .nextCursor(hasMore ? String.valueOf(pageIds.get(pageIds.size() - 1)) : null)
+                .build();
+    }
+
     @Transactional
     public User createUser(String username, String email, String password) {
-        if (userRepository.findByUsername(username).isPresent()) {
+        if (accountNames.isUsernameTaken(username)) {
             throw new RuntimeException("Username already exists");
         }
-        if (userRepository.findByEmail(email).isPresent()) {
+        if (accountNames.isEmailTaken(email)) {
             throw new RuntimeException("Email already exists");
         }
 
@@ -67,6 +110,7 @@ public class UserService {
                 .roles("USER")
                 .build();
 
+        accountNames.add(username, email);
         return userRepository.save(user);
     }
 
@@ -80,20 +124,25 @@ public class UserService {
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
     }
 
+    public Long getUserIdByUsername(String username) {
+        return userRepository.findIdByUsername(username)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+    }
+
     @Transactional
     public void followUser(User currentUser, Long userIdToFollow) {
         if (currentUser.getId().equals(userIdToFollow)) {
             throw new IllegalArgumentException("Cannot follow yourself");
         }
 
-        User userToFollow = userRepository.findById(userIdToFollow)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        if (!userRepository.existsById(userIdToFollow)) {
+            throw new UsernameNotFoundException("User not found");
+        }
 
-        currentUser.getFollowing().add(userToFollow);
-        userToFollow.getFollowers().add(currentUser);
-        userRepository.save(currentUser);
-        userRepository.save(userToFollow);
-        notificationService.notifyNewFollower(userToFollow, currentUser);
+        if (followGraph.follow(currentUser.getId(), userIdToFollow)) {
+            homeTimelineService.onFollow(currentUser.getId(), userIdToFollow);
+            notificationService.notifyNewFollower(userIdToFollow, currentUser);
+        }
     }
 
     @Transactional
@@ -102,12 +151,8 @@ public class UserService {
             throw new IllegalArgumentException("Cannot unfollow yourself");
         }
 
-        User userToUnfollow = userRepository.findById(userIdToUnfollow)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
-
-        currentUser.getFollowing().remove(userToUnfollow);
-        userToUnfollow.getFollowers().remove(currentUser);
-        userRepository.save(currentUser);
-        userRepository.save(userToUnfollow);
+        if (followGraph.unfollow(currentUser.getId(), userIdToUnfollow)) {
+            homeTimelineService.onUnfollow(currentUser.getId(), userIdToUnfollow);
+        }
     }
 }
@@ -1,30 +1,40 @@
 package com.koushik.redditclone.controller;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.koushik.redditclone.dto.AuthRequest;
 import com.koushik.redditclone.dto.RegisterRequest;
 import com.koushik.redditclone.model.User;
 import com.koushik.redditclone.repository.UserRepository;
 import com.koushik.redditclone.security.JwtUtils;
+import com.koushik.redditclone.security.PasswordHashingExecutor;
+import com.koushik.redditclone.service.AccountNameFilter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
-import org.springframework.http.MediaType;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.web.server.ResponseStatusException;
 
-import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -35,9 +45,6 @@ class AuthControllerTest {
     @Autowired
     private MockMvc mockMvc;
 
-    @Autowired
-    private ObjectMapper objectMapper;
-
     @MockBean
     private UserRepository userRepository;
 
@@ -50,6 +57,12 @@ class AuthControllerTest {
     @MockBean
     private JwtUtils jwtUtils;
 
+    @MockBean
+    private PasswordHashingExecutor passwordHashing;
+
+    @MockBean
+    private AccountNameFilter accountNames;
+
     private RegisterRequest registerRequest;
     private AuthRequest loginRequest;
     private Authentication authentication;
@@ -66,53 +79,64 @@ class AuthControllerTest {
         loginRequest.setUsername("testuser");
         loginRequest.setPassword("password123");
 
-        userDetails = new org.springframework.security.core.userdetails.User(
-            "testuser",
-            "password123",
-            Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER"))
-        );
+        userDetails = User.builder()
+            .id(1L)
+            .username("testuser")
+            .password("password123")
+            .roles("ROLE_USER")
+            .build();
 
         authentication = new UsernamePasswordAuthenticationToken(
             userDetails, null, userDetails.getAuthorities()
         );
+
+        // Run hashing work inline so the tests stay deterministic
+        when(passwordHashing.submit(any())).thenAnswer(invocation ->
+            CompletableFuture.completedFuture(invocation.<Supplier<?>>getArgument(0).get()));
     }
 
     @Test
     void registerSuccessful() throws Exception {
-        when(userRepository.existsByUsername("testuser")).thenReturn(false);
-        when(userRepository.existsByEmail("test@example.com")).thenReturn(false);
+        when(accountNames.isUsernameTaken("testuser")).thenReturn(false);
+        when(accountNames.isEmailTaken("test@example.com")).thenReturn(false);
         when(passwordEncoder.encode(any())).thenReturn("encodedPassword");
-        when(authenticationManager.authenticate(any())).thenReturn(authentication);
         when(jwtUtils.generateToken(any(UserDetails.class))).thenReturn("test.jwt.token");
 
-        mockMvc.perform(post("/auth/register")
-                .contentType(MediaType.APPLICATION_JSON)
-                .content(objectMapper.writeValueAsString(registerRequest)))
+        performAsync(post("/auth/register")
+                .param("username", registerRequest.getUsername())
+                .param("email", registerRequest.getEmail())
+                .param("password", registerRequest.getPassword()))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.token").value("test.jwt.token"))
-                .andExpect(jsonPath("$.username").value("testuser"))
+                .andExpect(jsonPath("$.user.username").value("testuser"))
                 .andExpect(jsonPath("$.message").value("User registered successfully"));
+
+        // Exactly one hash: the token is issued without re-authenticating
+        verify(passwordEncoder, times(1)).encode("password123");
+        verify(authenticationManager, never()).authenticate(any());
     }
 
     @Test
     void registerWithExistingUsername() throws Exception {
-        when(userRepository.existsByUsername("testuser")).thenReturn(true);
+        when(accountNames.isUsernameTaken("testuser")).thenReturn(true);
 
-        mockMvc.perform(post("/auth/register")
-                .contentType(MediaType.APPLICATION_JSON)
-                .content(objectMapper.writeValueAsString(registerRequest)))
+        performAsync(post("/auth/register")
+                .param("username", registerRequest.getUsername())
+                .param("email", registerRequest.getEmail())
+                .param("password", registerRequest.getPassword()))
                 .andExpect(status().isBadRequest())
                 .andExpect(jsonPath("$.message").value("Username is already taken"));
     }
 
     @Test
     void registerWithExistingEmail() throws Exception {
-        when(userRepository.existsByUsername("testuser")).thenReturn(false);
-        when(userRepository.existsByEmail("test@example.com")).thenReturn(true);
+        when(accountNames.isUsernameTaken("testuser")).thenReturn(false);
+        when(accountNames.isEmailTaken("test@example.com")).thenReturn(true);
 
-        mockMvc.perform(post("/auth/register")
-                .contentType(MediaType.APPLICATION_JSON)
-                .content(objectMapper.writeValueAsString(registerRequest)))
+        performAsync(post("/auth/register")
+                .param("username", registerRequest.getUsername())
+                .param("email", registerRequest.getEmail())
+                .param("password", registerRequest.getPassword()))
                 .andExpect(status().isBadRequest())
                 .andExpect(jsonPath("$.message").value("Email is already registered"));
     }
@@ -122,12 +146,12 @@ class AuthControllerTest {
         when(authenticationManager.authenticate(any())).thenReturn(authentication);
         when(jwtUtils.generateToken(any(UserDetails.class))).thenReturn("test.jwt.token");
 
-        mockMvc.perform(post("/auth/login")
-                .contentType(MediaType.APPLICATION_JSON)
-                .content(objectMapper.writeValueAsString(loginRequest)))
+        performAsync(post("/auth/login")
+                .param("username", loginRequest.getUsername())
+                .param("password", loginRequest.getPassword()))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.token").value("test.jwt.token"))
-                .andExpect(jsonPath("$.username").value("testuser"))
+                .andExpect(jsonPath("$.user.username").value("testuser"))
                 .andExpect(jsonPath("$.message").value("Login successful"));
     }
 
@@ -136,10 +160,39 @@ class AuthControllerTest {
         when(authenticationManager.authenticate(any()))
                 .thenThrow(new org.springframework.security.authentication.BadCredentialsException("Invalid credentials"));
 
-        mockMvc.perform(post("/auth/login")
-                .contentType(MediaType.APPLICATION_JSON)
-                .content(objectMapper.writeValueAsString(loginRequest)))
+        performAsync(post("/auth/login")
+                .param("username", loginRequest.getUsername())
+                .param("password", loginRequest.getPassword()))
                 .andExpect(status().isBadRequest())
                 .andExpect(jsonPath("$.message").value("Login failed: Invalid credentials"));
     }
+
+    @Test
+    void loginRejectedWhenHashingPoolIsFull() throws Exception {
+        when(passwordHashing.submit(any()))
+                .thenThrow(new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many sign-in attempts"));
+
+        mockMvc.perform(post("/auth/login")
+                .param("username", loginRequest.getUsername())
+                .param("password", loginRequest.getPassword()))
+                .andExpect(status().isTooManyRequests());
+        verify(authenticationManager, never()).authenticate(any());
+    }
+
+    @Test
+    void reportsAvailability() throws Exception {
+        when(accountNames.isUsernameTaken("testuser")).thenReturn(true);
+
+        mockMvc.perform(get("/auth/available").param("username", "testuser"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.username").value(false))
+                .andExpect(jsonPath("$.email").doesNotExist());
+        mockMvc.perform(get("/auth/available").param("username", "newuser"))
+                .andExpect(jsonPath("$.username").value(true));
+    }
+
+    private ResultActions performAsync(MockHttpServletRequestBuilder builder) throws Exception {
+        MvcResult result = mockMvc.perform(builder).andExpect(request().asyncStarted()).andReturn();
+        return mockMvc.perform(asyncDispatch(result));
+    }
 }
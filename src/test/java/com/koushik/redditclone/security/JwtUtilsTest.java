@@ -0,0 +1,43 @@
+package com.koushik.redditclone.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.koushik.redditclone.model.User;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtUtilsTest {
+
+    private JwtUtils jwtUtils;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "secret", "5367566B59703373367639792F423F4528482B4D6251655468576D5A71347437");
+        ReflectionTestUtils.setField(jwtUtils, "expiration", 60_000L);
+        ReflectionTestUtils.setField(jwtUtils, "verifiedCacheSize", 10);
+        jwtUtils.init();
+    }
+
+    @Test
+    void buildsPrincipalFromClaims() {
+        String token = jwtUtils.generateToken(User.builder().id(42L).username("alice").roles("USER").build());
+
+        User principal = jwtUtils.authenticate(token);
+        assertThat(principal.getId()).isEqualTo(42L);
+        assertThat(principal.getUsername()).isEqualTo("alice");
+        assertThat(principal.getAuthorities()).extracting(Object::toString).containsExactly("USER");
+        assertThat(jwtUtils.authenticate(token)).isSameAs(principal);
+    }
+
+    @Test
+    void rejectsTamperedTokens() {
+        String token = jwtUtils.generateToken(User.builder().id(42L).username("alice").roles("USER").build());
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        assertThat(jwtUtils.authenticate(tampered)).isNull();
+        assertThat(jwtUtils.authenticate("not-a-token")).isNull();
+    }
+}
@@ -0,0 +1,75 @@
+package com.koushik.redditclone.security;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PasswordHashingExecutorTest {
+
+    @Test
+    void rejectsWorkBeyondTheQueueWith429() throws Exception {
+        PasswordHashingExecutor executor = new PasswordHashingExecutor(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(executor, "threads", 1);
+        ReflectionTestUtils.setField(executor, "queueCapacity", 1);
+        executor.start();
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            CompletableFuture<String> running = executor.submit(() -> {
+                started.countDown();
+                awaitQuietly(release);
+                return "first";
+            });
+            started.await();
+            CompletableFuture<String> queued = executor.submit(() -> "second");
+
+            assertThatThrownBy(() -> executor.submit(() -> "third"))
+                    .isInstanceOfSatisfying(ResponseStatusException.class,
+                            e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS));
+
+            release.countDown();
+            assertThat(running.get()).isEqualTo("first");
+            assertThat(queued.get()).isEqualTo("second");
+        } finally {
+            release.countDown();
+            executor.stop();
+        }
+    }
+
+    @Test
+    void runsDependentStagesOffTheHashingThreads() throws Exception {
+        PasswordHashingExecutor executor = new PasswordHashingExecutor(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(executor, "threads", 1);
+        ReflectionTestUtils.setField(executor, "queueCapacity", 1);
+        executor.start();
+        try {
+            String hashedOn = executor.submit(() -> Thread.currentThread().getName()).get();
+            String chainedOn = executor.submit(() -> "hash")
+                    .thenApply(hash -> Thread.currentThread().getName())
+                    .get();
+
+            assertThat(hashedOn).startsWith("password-hashing-");
+            assertThat(chainedOn).doesNotStartWith("password-hashing-");
+        } finally {
+            executor.stop();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.koushik.redditclone.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FollowGraphTest {
+
+    @Test
+    void keepsAdjacencySortedAndUnique() {
+        long[] ids = new long[0];
+        ids = FollowGraph.insert(ids, 7);
+        ids = FollowGraph.insert(ids, 3);
+        ids = FollowGraph.insert(ids, 9);
+        ids = FollowGraph.insert(ids, 3);
+        assertThat(ids).containsExactly(3, 7, 9);
+
+        ids = FollowGraph.remove(ids, 7);
+        ids = FollowGraph.remove(ids, 8);
+        assertThat(ids).containsExactly(3, 9);
+    }
+
+    @Test
+    void pagesAfterAnId() {
+        long[] ids = {2, 4, 6, 8, 10};
+
+        assertThat(FollowGraph.slice(ids, Long.MIN_VALUE, 2)).containsExactly(2, 4);
+        assertThat(FollowGraph.slice(ids, 4, 2)).containsExactly(6, 8);
+        assertThat(FollowGraph.slice(ids, 5, 10)).containsExactly(6, 8, 10);
+        assertThat(FollowGraph.slice(ids, 10, 2)).isEmpty();
+    }
+}
@@ -0,0 +1,83 @@
+package com.koushik.redditclone.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class HashtagSketchTest {
+
+    @Test
+    void ranksHeavyHittersAmongManyOneOffTags() {
+        HashtagSketch sketch = new HashtagSketch(50, 0.001, 0.99, 10, 3);
+        long author = 0;
+        for (int i = 0; i < 20_000; i++) {
+            sketch.add("#noise" + i, author++);
+            if (i % 10 == 0) {
+                sketch.add("#java", author++);
+            }
+            if (i % 20 == 0) {
+                sketch.add("#spring", author++);
+            }
+        }
+
+        assertThat(sketch.top(2)).containsExactly("#java", "#spring");
+    }
+
+    @Test
+    void capsTagsPushedBySingleAuthor() {
+        HashtagSketch sketch = new HashtagSketch(50, 0.001, 0.99, 10, 3);
+        for (int i = 0; i < 1_000; i++) {
+            sketch.add("#spam", 1L);
+        }
+        for (int i = 0; i < 100; i++) {
+            sketch.add("#organic", 100L + i);
+        }
+
+        assertThat(sketch.top(2)).containsExactly("#organic", "#spam");
+    }
+
+    @Test
+    void countMinNeverUndercounts() {
+        HashtagSketch sketch = new HashtagSketch(10, 0.01, 0.99, 8, 3);
+        for (int i = 0; i < 5_000; i++) {
+            sketch.add("#tag" + (i % 500), i);
+        }
+
+        for (int i = 0; i < 500; i++) {
+            assertThat(sketch.estimate("#tag" + i)).isGreaterThanOrEqualTo(10);
+        }
+    }
+
+    @Test
+    void decayHalvesCountsAndDeletesSubtract() {
+        HashtagSketch sketch = new HashtagSketch(10, 0.001, 0.99, 8, 3);
+        for (int i = 0; i < 64; i++) {
+            sketch.add("#java", i);
+        }
+        sketch.remove("#java");
+        sketch.decay();
+
+        assertThat(sketch.estimate("#java")).isEqualTo(31);
+        assertThat(sketch.top(1)).containsExactly("#java");
+    }
+
+    @Test
+    void hyperLogLogEstimatesDistinctAuthors() {
+        HyperLogLog hll = new HyperLogLog(10);
+        for (long i = 0; i < 50_000; i++) {
+            hll.add(mix(i));
+        }
+
+        assertThat((double) hll.estimate(null)).isCloseTo(50_000, within(50_000 * 0.1));
+    }
+
+    private static long mix(long value) {
+        long h = value * 0x9e3779b97f4a7c15L;
+        h ^= h >>> 30;
+        h *= 0xbf58476d1ce4e5b9L;
+        h ^= h >>> 27;
+        h *= 0x94d049bb133111ebL;
+        return h ^ (h >>> 31);
+    }
+}
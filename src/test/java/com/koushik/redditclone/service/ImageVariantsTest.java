@@ -0,0 +1,62 @@
+package com.koushik.redditclone.service;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImageVariantsTest {
+
+    private final ImageVariants variants = new ImageVariants(320, 720, 2048, 0.82f);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void rendersEachWidthAsSmallerJpegs() throws IOException {
+        Path source = write(new BufferedImage(4000, 3000, BufferedImage.TYPE_INT_RGB), "png", "photo.png");
+
+        ImageVariants.Rendered rendered = variants.render(source);
+
+        assertThat(rendered.type()).isEqualTo("image/jpeg");
+        assertThat(ImageIO.read(rendered.thumb().toFile()).getWidth()).isEqualTo(320);
+        assertThat(ImageIO.read(rendered.feed().toFile()).getWidth()).isEqualTo(720);
+        BufferedImage full = ImageIO.read(rendered.full().toFile());
+        assertThat(full.getWidth()).isEqualTo(2048);
+        assertThat(full.getHeight()).isEqualTo(1536);
+    }
+
+    @Test
+    void neverUpscalesAndKeepsTransparency() throws IOException {
+        Path source = write(new BufferedImage(200, 100, BufferedImage.TYPE_INT_ARGB), "png", "icon.png");
+
+        ImageVariants.Rendered rendered = variants.render(source);
+
+        assertThat(rendered.type()).isEqualTo("image/png");
+        BufferedImage full = ImageIO.read(rendered.full().toFile());
+        assertThat(full.getWidth()).isEqualTo(200);
+        assertThat(full.getColorModel().hasAlpha()).isTrue();
+    }
+
+    @Test
+    void leavesGifsAndUnknownFilesAlone() throws IOException {
+        Path gif = write(new BufferedImage(50, 50, BufferedImage.TYPE_BYTE_INDEXED), "gif", "anim.gif");
+        Path text = Files.writeString(directory.resolve("notes.png"), "not an image");
+
+        assertThat(variants.render(gif)).isNull();
+        assertThat(variants.render(text)).isNull();
+    }
+
+    private Path write(BufferedImage image, String format, String name) throws IOException {
+        Path path = directory.resolve(name);
+        ImageIO.write(image, format, path.toFile());
+        return path;
+    }
+}
@@ -0,0 +1,39 @@
+package com.koushik.redditclone.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PostSearchIndexTest {
+
+    @Test
+    void stemsInflectedForms() {
+        assertThat(SearchTokenizer.tokenize("Posted posts, POSTING and caches cached"))
+                .containsExactly("post", "post", "post", "cach", "cach");
+    }
+
+    @Test
+    void ranksByBm25AndSkipsDeletedPosts() {
+        PostSearchIndex index = new PostSearchIndex(null);
+        index.add(1, "Spring boot tips for caching");
+        index.add(2, "My cat loves boxes");
+        index.add(3, "Caching caching caching in spring");
+        index.add(4, "Spring is here");
+
+        PostSearchIndex.Hits hits = index.search("spring cache", 0, 10);
+        assertThat(hits.getPostIds()).containsExactly(3, 1, 4);
+        assertThat(hits.getTotal()).isEqualTo(3);
+
+        index.remove(3);
+        assertThat(index.search("spring cache", 1, 1).getPostIds()).containsExactly(4);
+    }
+
+    @Test
+    void acceptsPostsOutOfIdOrder() {
+        PostSearchIndex index = new PostSearchIndex(null);
+        index.add(20, "hello world");
+        index.add(10, "hello there");
+
+        assertThat(index.search("hello", 0, 10).getPostIds()).containsExactlyInAnyOrder(10, 20);
+    }
+}
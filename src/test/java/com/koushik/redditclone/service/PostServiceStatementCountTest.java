@@ -0,0 +1,136 @@
+package com.koushik.redditclone.service;
+
+import com.koushik.redditclone.dto.CommentResponse;
+import com.koushik.redditclone.dto.PageResponse;
+import com.koushik.redditclone.model.Comment;
+import com.koushik.redditclone.model.Post;
+import com.koushik.redditclone.model.User;
+import com.koushik.redditclone.repository.CommentRepository;
+import com.koushik.redditclone.repository.PostRepository;
+import com.koushik.redditclone.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Counts only statements issued on the test thread; Hibernate's Statistics are global
+// and also see the scheduled flushes and background loaders
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.koushik.redditclone.service.PostServiceStatementCountTest$ThreadStatementCounter")
+@Transactional
+class PostServiceStatementCountTest {
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private User author;
+    private Post firstPost;
+
+    @BeforeEach
+    void setUp() {
+        author = userRepository.save(User.builder()
+                .username("statement-count-author")
+                .email("statement-count@example.com")
+                .password("password")
+                .roles("ROLE_USER")
+                .build());
+        for (int i = 0; i < 40; i++) {
+            Post post = postRepository.save(Post.builder().content("post " + i).user(author).build());
+            if (firstPost == null) {
+                firstPost = post;
+            }
+        }
+        for (int i = 0; i < 25; i++) {
+            commentRepository.save(Comment.builder().content("comment " + i).post(firstPost).user(author).build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        // The posts get fresh ids, so their views are cache misses whatever ran before
+
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(author, null, author.getAuthorities()));
+        ThreadStatementCounter.reset();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 30})
+    void globalFeedPageUsesFixedStatementCount(int size) {
+        postService.getAllPosts("", size);
+
+        // page ids + views for cache misses + liked post ids
+        assertThat(ThreadStatementCounter.count()).isEqualTo(3);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 30})
+    void userFeedPageUsesFixedStatementCount(int size) {
+        postService.getUserPosts(author.getUsername(), "", size);
+
+        // author id + page ids + views for cache misses + liked post ids
+        assertThat(ThreadStatementCounter.count()).isEqualTo(4);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 30})
+    void commentPagesUseOneStatement(int size) {
+        PageResponse<CommentResponse> first = postService.getComments(firstPost.getId(), "", size);
+        assertThat(ThreadStatementCounter.count()).isEqualTo(1);
+
+        if (first.getNextCursor() != null) {
+            ThreadStatementCounter.reset();
+            PageResponse<CommentResponse> second =
+                    postService.getComments(firstPost.getId(), first.getNextCursor(), size);
+            assertThat(ThreadStatementCounter.count()).isEqualTo(1);
+            assertThat(second.getData()).extracting(CommentResponse::getId)
+                    .doesNotContainAnyElementsOf(first.getData().stream().map(CommentResponse::getId).toList());
+        }
+
+        ThreadStatementCounter.reset();
+        postService.getComments(firstPost.getId(), 1, size);
+        assertThat(ThreadStatementCounter.count()).isEqualTo(1);
+    }
+
+    public static class ThreadStatementCounter implements StatementInspector {
+        private static final ThreadLocal<int[]> COUNT = ThreadLocal.withInitial(() -> new int[1]);
+
+        @Override
+        public String inspect(String sql) {
+            COUNT.get()[0]++;
+            return sql;
+        }
+
+        static void reset() {
+            COUNT.get()[0] = 0;
+        }
+
+        static int count() {
+            return COUNT.get()[0];
+        }
+    }
+}
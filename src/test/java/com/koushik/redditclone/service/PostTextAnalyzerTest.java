@@ -0,0 +1,53 @@
+package com.koushik.redditclone.service;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PostTextAnalyzerTest {
+
+    @Test
+    void extractsNormalizedDistinctHashtags() {
+        PostTextAnalyzer.Analysis analysis = PostTextAnalyzer.analyze("Loving #Java and #java, also #spring_boot!");
+
+        assertThat(analysis.hashtags()).containsExactly("#java", "#spring_boot");
+    }
+
+    @Test
+    void handlesUnicodeWordCharacters() {
+        PostTextAnalyzer.Analysis analysis = PostTextAnalyzer.analyze("Vacaciones #Mañana y #東京 #café");
+
+        assertThat(analysis.hashtags()).containsExactly("#mañana", "#東京", "#café");
+    }
+
+    @Test
+    void ignoresMarkersInsideWords() {
+        PostTextAnalyzer.Analysis analysis = PostTextAnalyzer.analyze("mail me at dev@example.com, issue a#1 or # alone");
+
+        assertThat(analysis.mentions()).isEmpty();
+        assertThat(analysis.hashtags()).isEmpty();
+    }
+
+    @Test
+    void extractsMentionsAndUrlsWithOffsets() {
+        String text = "@alice see https://example.com/a?b=1#frag.";
+        List<PostTextAnalyzer.Entity> entities = PostTextAnalyzer.analyze(text).getEntities();
+
+        assertThat(entities).hasSize(2);
+        assertThat(entities.get(0).getType()).isEqualTo(PostTextAnalyzer.EntityType.MENTION);
+        assertThat(entities.get(0).getValue()).isEqualTo("alice");
+        assertThat(text.substring(entities.get(0).getStart(), entities.get(0).getEnd())).isEqualTo("@alice");
+
+        // the fragment belongs to the link, the trailing period does not
+        assertThat(entities.get(1).getType()).isEqualTo(PostTextAnalyzer.EntityType.URL);
+        assertThat(entities.get(1).getValue()).isEqualTo("https://example.com/a?b=1#frag");
+    }
+
+    @Test
+    void handlesEmptyAndNullText() {
+        assertThat(PostTextAnalyzer.analyze("").getEntities()).isEmpty();
+        assertThat(PostTextAnalyzer.analyze(null).getEntities()).isEmpty();
+    }
+}
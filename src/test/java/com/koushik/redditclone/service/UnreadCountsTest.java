@@ -0,0 +1,58 @@
+package com.koushik.redditclone.service;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UnreadCountsTest {
+
+    @Test
+    void appliesWriteDeltasToCachedCounts() {
+        UnreadCounts counts = new UnreadCounts(10);
+        counts.put(1L, 3, counts.stamp(1L));
+
+        counts.beginWrite(List.of(1L, 2L));
+        counts.endWrite(List.of(1L, 2L), Map.of(1L, 2L, 2L, 5L));
+        assertThat(counts.get(1L)).isEqualTo(5);
+        assertThat(counts.get(2L)).isNull();
+
+        counts.beginWrite(List.of(1L));
+        counts.endWrite(List.of(1L), Map.of(1L, -9L));
+        assertThat(counts.get(1L)).isZero();
+    }
+
+    @Test
+    void dropsLoadsThatRacedWithAWrite() {
+        UnreadCounts counts = new UnreadCounts(10);
+
+        long stamp = counts.stamp(1L);
+        counts.beginWrite(List.of(1L));
+        counts.put(1L, 4, stamp);
+        assertThat(counts.get(1L)).isNull();
+
+        assertThat(counts.stamp(1L)).isEqualTo(-1);
+        counts.endWrite(List.of(1L), Map.of(1L, 1L));
+        counts.put(1L, 4, stamp);
+        assertThat(counts.get(1L)).isNull();
+
+        counts.put(1L, 5, counts.stamp(1L));
+        assertThat(counts.get(1L)).isEqualTo(5);
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedUsers() {
+        UnreadCounts counts = new UnreadCounts(2);
+        counts.put(1L, 1, counts.stamp(1L));
+        counts.put(2L, 2, counts.stamp(2L));
+        counts.get(1L);
+        counts.put(3L, 3, counts.stamp(3L));
+
+        assertThat(counts.get(2L)).isNull();
+        assertThat(counts.get(1L)).isEqualTo(1);
+        counts.invalidate(List.of(1L));
+        assertThat(counts.get(1L)).isNull();
+    }
+}